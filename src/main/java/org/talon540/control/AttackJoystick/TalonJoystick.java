@@ -1,13 +1,15 @@
 package org.talon540.control.AttackJoystick;
 
 import edu.wpi.first.wpilibj.Joystick;
+import org.talon540.control.HIDStateSnapshot;
+import org.talon540.control.InputShaper;
 
 /**
  * Extends the normal WPI Joystick class with methods for calculating deadband
  * angles and normalizing the curve generated by changes in inputs
  */
 public class TalonJoystick extends Joystick {
-    private double deadband;
+    private final InputShaper shaper;
 
     public AttackJoystickButtons buttons = new AttackJoystickButtons(this);
 
@@ -17,7 +19,7 @@ public class TalonJoystick extends Joystick {
      */
     public TalonJoystick(int port, double deadbandPercentage) {
         super(port);
-        this.deadband = deadbandPercentage;
+        this.shaper = new InputShaper(deadbandPercentage);
     }
 
     /**
@@ -34,7 +36,7 @@ public class TalonJoystick extends Joystick {
      * @return normalized X
      */
     public double getDeadbandX() {
-        return checkDeadband(super.getX());
+        return shaper.shape(super.getX());
     }
 
     /**
@@ -44,16 +46,15 @@ public class TalonJoystick extends Joystick {
      * @return normalized Y
      */
     public double getDeadbandY() {
-        return checkDeadband(super.getY());
+        return shaper.shape(super.getY());
     }
 
     /**
-     * Change the currently set deadband. Must be within [-1, 1]
+     * Change the currently set deadband. Must be within [0, 1)
      * @param deadband new deadband val
      */
     public void setDeadband(double deadband) {
-        if(deadband > 1 || 0 > deadband) throw new IllegalArgumentException("Deadband cannot exceed max output");
-        this.deadband = deadband;
+        shaper.setDeadband(deadband);
     }
 
     /**
@@ -61,25 +62,34 @@ public class TalonJoystick extends Joystick {
      * @return deadband
      */
     public double getDeadband() {
-        return deadband;
+        return shaper.getDeadband();
     }
 
     /**
-     * Return 0 if the reported value is within the deadband
+     * Get the snapshot of the controller's state shared by its buttons, which is refreshed once per loop cycle
      *
-     * @param val current val within domain [-1, 1]
-     * @return Checked deadband value
+     * @return state snapshot
      */
-    private double checkDeadband(double val) {
-        if (Math.abs(val) > deadband) {
-            if (val > 0.0) {
-                return (val - deadband) / (1.0 - deadband);
-            } else {
-                return (val + deadband) / (1.0 - deadband);
-            }
-        } else {
-            return 0.0;
-        }
+    public HIDStateSnapshot getStateSnapshot() {
+        return HIDStateSnapshot.getInstance(getPort());
+    }
+
+    /**
+     * Get the shaper applied to the joystick, used to configure its curve, scale and slew rate
+     *
+     * @return joystick shaper
+     */
+    public InputShaper getShaper() {
+        return shaper;
+    }
+
+    /**
+     * Get the X and Y values shaped with a radial deadband and slew rate limit
+     *
+     * @param out array of at least length 2 to write the shaped X and Y to
+     */
+    public void getShaped(double[] out) {
+        shaper.calculateRadial(super.getX(), super.getY(), out);
     }
 
 }
@@ -0,0 +1,284 @@
+package org.talon540.control;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link BatteryVoltageCheck} that predicts brownouts before they happen. The battery voltage is filtered to remove
+ * noise, the rate the voltage is sagging is tracked, and the battery's internal resistance is estimated from changes in
+ * voltage and current draw. Filters are stepped by the measured time between updates, so their time constants hold at
+ * any update rate. The monitor is triggered when the filtered voltage, or the voltage predicted a short time
+ * ahead, drops below the minimum voltage.
+ * <p>
+ * Subsystems can register load shedding callbacks, which are called whenever the {@link LoadShedLevel} changes so they
+ * can lower their current limits or output before the roboRIO browns out. {@link #update()} should be called once per
+ * loop, such as from {@code robotPeriodic}.
+ */
+public class BatteryMonitor extends BatteryVoltageCheck implements Sendable {
+    /**
+     * Voltage at which the roboRIO starts to brown out
+     */
+    public static final double kDefaultBrownoutVoltage = 6.8;
+
+    private static final double kVoltageTimeConstantSeconds = 0.1;
+    private static final double kSagRateTimeConstantSeconds = 0.2;
+    private static final double kMinCurrentStepAmps = 5;
+    private static final double kResistanceSmoothing = 0.1;
+    private static final double kRecoveryHysteresisVolts = 0.5;
+
+    private final DoubleSupplier currentSupplier;
+    private final double brownoutVoltage, predictionHorizonSeconds;
+    private final List<Consumer<LoadShedLevel>> loadShedListeners = new ArrayList<>();
+
+    private double filteredVoltage = 12, sagRate, internalResistance = Double.NaN;
+    private double lastVoltage = Double.NaN, lastCurrent, lastTimestamp = Double.NaN;
+    private LoadShedLevel loadShedLevel = LoadShedLevel.NORMAL;
+
+    /**
+     * Create a battery monitor
+     *
+     * @param minVoltage voltage at which load is reduced [0v, 12v]
+     * @param brownoutVoltage voltage at which load is cut to a minimum, normally the roboRIO's brownout voltage
+     * @param predictionHorizonSeconds how far ahead in seconds the voltage is predicted from the sag rate
+     * @param currentSupplier supplier of the total current drawn from the battery in amps, i.e. from the PDP
+     */
+    public BatteryMonitor(
+            double minVoltage, double brownoutVoltage, double predictionHorizonSeconds,
+            @NotNull DoubleSupplier currentSupplier
+    ) {
+        super(minVoltage, 1);
+        if (brownoutVoltage >= minVoltage)
+            throw new IllegalArgumentException("Brownout voltage must be less than the minimum voltage");
+
+        this.brownoutVoltage = brownoutVoltage;
+        this.predictionHorizonSeconds = predictionHorizonSeconds;
+        this.currentSupplier = currentSupplier;
+    }
+
+    /**
+     * Create a battery monitor that reduces load at 9 volts, cuts load at the roboRIO's brownout voltage and predicts
+     * 0.25 seconds ahead
+     *
+     * @param currentSupplier supplier of the total current drawn from the battery in amps, i.e. from the PDP
+     */
+    public BatteryMonitor(@NotNull DoubleSupplier currentSupplier) {
+        this(
+                9,
+                kDefaultBrownoutVoltage,
+                0.25,
+                currentSupplier
+        );
+    }
+
+    /**
+     * Read the battery voltage and current and update the estimates. Should be called once per loop
+     */
+    public void update() {
+        double timestamp = Timer.getFPGATimestamp();
+        double voltage = RobotController.getBatteryVoltage();
+        double current = currentSupplier.getAsDouble();
+
+        if (Double.isNaN(lastTimestamp)) {
+            // Start the filter from the first sample instead of ramping up to it
+            filteredVoltage = voltage;
+        } else {
+            double dt = timestamp - lastTimestamp;
+            if (dt > 0) {
+                double previousFiltered = filteredVoltage;
+                filteredVoltage = lowPass(filteredVoltage, voltage, dt, kVoltageTimeConstantSeconds);
+                sagRate = lowPass(sagRate, (filteredVoltage - previousFiltered) / dt, dt, kSagRateTimeConstantSeconds);
+            }
+
+            // Voltage drops by the internal resistance times the change in current
+            double currentStep = current - lastCurrent;
+            if (Math.abs(currentStep) >= kMinCurrentStepAmps) {
+                double resistance = -(voltage - lastVoltage) / currentStep;
+
+                if (resistance > 0) {
+                    internalResistance = Double.isNaN(internalResistance)
+                            ? resistance
+                            : internalResistance + kResistanceSmoothing * (resistance - internalResistance);
+                }
+            }
+        }
+
+        lastTimestamp = timestamp;
+        lastVoltage = voltage;
+        lastCurrent = current;
+
+        setLoadShedLevel(calculateLoadShedLevel());
+    }
+
+    /**
+     * Step a single pole IIR low pass filter, matching {@link edu.wpi.first.math.filter.LinearFilter#singlePoleIIR}
+     * with a period of {@code dt}
+     */
+    private static double lowPass(double previous, double input, double dt, double timeConstant) {
+        double gain = Math.exp(-dt / timeConstant);
+        return gain * previous + (1 - gain) * input;
+    }
+
+    private LoadShedLevel calculateLoadShedLevel() {
+        double predicted = getPredictedVoltage();
+        double lowest = Math.min(filteredVoltage, predicted);
+
+        if (lowest < brownoutVoltage)
+            return LoadShedLevel.CRITICAL;
+        if (loadShedLevel == LoadShedLevel.CRITICAL && lowest < brownoutVoltage + kRecoveryHysteresisVolts)
+            return LoadShedLevel.CRITICAL;
+
+        if (lowest < getMinVoltage())
+            return LoadShedLevel.REDUCED;
+        if (loadShedLevel != LoadShedLevel.NORMAL && lowest < getMinVoltage() + kRecoveryHysteresisVolts)
+            return LoadShedLevel.REDUCED;
+
+        return LoadShedLevel.NORMAL;
+    }
+
+    private void setLoadShedLevel(LoadShedLevel level) {
+        if (level == loadShedLevel)
+            return;
+
+        loadShedLevel = level;
+        for (int i = 0; i < loadShedListeners.size(); i++) {
+            loadShedListeners.get(i).accept(level);
+        }
+    }
+
+    /**
+     * Register a callback that is called with the new level whenever the load shedding level changes
+     *
+     * @param listener callback to register
+     */
+    public void addLoadShedListener(@NotNull Consumer<LoadShedLevel> listener) {
+        loadShedListeners.add(listener);
+    }
+
+    /**
+     * Get the current load shedding level
+     *
+     * @return load shedding level
+     */
+    public LoadShedLevel getLoadShedLevel() {
+        return loadShedLevel;
+    }
+
+    /**
+     * Get the filtered battery voltage
+     *
+     * @return filtered voltage
+     */
+    public double getFilteredVoltage() {
+        return filteredVoltage;
+    }
+
+    /**
+     * Get the rate the filtered voltage is changing in volts per second. Negative when the voltage is sagging
+     *
+     * @return voltage rate
+     */
+    public double getSagRate() {
+        return sagRate;
+    }
+
+    /**
+     * Get the estimated internal resistance of the battery and wiring in ohms. Returns {@link Double#NaN} until a large
+     * enough change in current has been seen
+     *
+     * @return internal resistance
+     */
+    public double getInternalResistance() {
+        return internalResistance;
+    }
+
+    /**
+     * Get the voltage predicted at the end of the prediction horizon if the current sag rate continues
+     *
+     * @return predicted voltage
+     */
+    public double getPredictedVoltage() {
+        return filteredVoltage + Math.min(sagRate, 0) * predictionHorizonSeconds;
+    }
+
+    /**
+     * Get the additional current in amps that can be drawn before the voltage drops to the brownout voltage. Returns
+     * {@link Double#POSITIVE_INFINITY} if the internal resistance hasn't been estimated
+     *
+     * @return current headroom
+     */
+    public double getCurrentHeadroom() {
+        if (Double.isNaN(internalResistance))
+            return Double.POSITIVE_INFINITY;
+
+        return Math.max((filteredVoltage - brownoutVoltage) / internalResistance, 0);
+    }
+
+    /**
+     * Whether a brownout is predicted within the prediction horizon
+     *
+     * @return if a brownout is predicted
+     */
+    public boolean isBrownoutPredicted() {
+        return getPredictedVoltage() < brownoutVoltage;
+    }
+
+    @Override
+    protected boolean poll() {
+        return loadShedLevel != LoadShedLevel.NORMAL;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addDoubleProperty(
+                "voltage",
+                this::getFilteredVoltage,
+                null
+        );
+        builder.addDoubleProperty(
+                "sagRate",
+                this::getSagRate,
+                null
+        );
+        builder.addDoubleProperty(
+                "resistance",
+                this::getInternalResistance,
+                null
+        );
+        builder.addDoubleProperty(
+                "predictedVoltage",
+                this::getPredictedVoltage,
+                null
+        );
+        builder.addStringProperty(
+                "loadShedLevel",
+                () -> loadShedLevel.name(),
+                null
+        );
+    }
+
+    /**
+     * How much subsystems should reduce their load
+     */
+    public enum LoadShedLevel {
+        /**
+         * Battery is healthy, no load shedding
+         */
+        NORMAL,
+        /**
+         * Voltage is below or predicted to drop below the minimum voltage, non-essential load should be reduced
+         */
+        REDUCED,
+        /**
+         * Voltage is below or predicted to drop below the brownout voltage, load should be cut to a minimum
+         */
+        CRITICAL
+    }
+}
@@ -1,28 +1,47 @@
 package org.talon540.control;
 
 import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj2.command.button.Button;
 
-public class BatteryVoltageCheck extends Button {
+public class BatteryVoltageCheck extends PolledButton {
     private final double min;
 
     /**
      * Set the minimum voltage required before the battery safety reporting process starts
      *
      * @param minVoltage minimum voltage [0v, 12v]
+     * @param periodCycles number of loops between voltage checks, where a larger period reads the voltage less often
      */
-    public BatteryVoltageCheck(double minVoltage) {
+    public BatteryVoltageCheck(double minVoltage, int periodCycles) {
+        super(periodCycles);
         if (!(0 <= minVoltage && minVoltage <= 12))
             throw new IllegalArgumentException("Minimum voltage must be between 0 and 12 volts");
         this.min = minVoltage;
     }
 
+    /**
+     * Set the minimum voltage required before the battery safety reporting process starts, checked every loop
+     *
+     * @param minVoltage minimum voltage [0v, 12v]
+     */
+    public BatteryVoltageCheck(double minVoltage) {
+        this(minVoltage, 1);
+    }
+
     public BatteryVoltageCheck() {
         this(11);
     }
 
+    /**
+     * Get the minimum voltage before the check is triggered
+     *
+     * @return minimum voltage
+     */
+    public double getMinVoltage() {
+        return min;
+    }
+
     @Override
-    public boolean get() {
+    protected boolean poll() {
         return RobotController.getBatteryVoltage() < min;
     }
 }
@@ -0,0 +1,388 @@
+package org.talon540.control;
+
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj2.command.button.Button;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.control.XboxController.XboxControllerDPADButton.DPAD;
+import org.talon540.control.XboxController.XboxControllerTriggerButton;
+import org.talon540.control.XboxController.XboxControllerTriggerButton.Triggers;
+import org.talon540.sensors.DigitalProximitySensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds press and release events for many inputs at once instead of having every binding read its source every cycle.
+ * Each input is a {@link Button} whose state only changes when the queue finds an event for it, so bindings are made
+ * with the normal {@link Button} API and reading an input is a field read.
+ * <ul>
+ *     <li>Controller buttons, DPAD directions and triggers are read from each controller's {@link HIDStateSnapshot} and
+ *     packed into one bitmask per controller, so every changed input is found with one XOR against the previous
+ *     cycle. Trigger thresholds are compared once per cycle while packing the mask.</li>
+ *     <li>Proximity sensors are watched with DIO interrupts and are only read when an edge was seen since the last
+ *     poll. A pulse shorter than a loop that ends in the same state isn't reported.</li>
+ *     <li>Other inputs, such as {@link UserButton} and {@link BatteryVoltageCheck}, can't report their own edges, so
+ *     they are read from a {@link BooleanSupplier} once per poll period.</li>
+ * </ul>
+ * Changes are pushed as events into a queue sized when inputs are added, then applied in order. The queue polls itself
+ * from {@link LoopClock#tick()}, which should be called at the start of each loop before the
+ * {@link edu.wpi.first.wpilibj2.command.CommandScheduler} runs.
+ */
+public class ButtonEventQueue implements AutoCloseable {
+    private static final int kPOVShift = 32;
+    private static final int kTriggerShift = kPOVShift + 8;
+    private static final int kMaxTriggers = Long.SIZE - kTriggerShift;
+    private static final int kMaxInterrupts = Integer.SIZE;
+
+    private final HIDStateSnapshot[] snapshots;
+    private final long[] previousMasks, watchedMasks;
+    private final int[][] bitInputs;
+    private final int[][] triggerAxes;
+    private final double[][] triggerThresholds;
+    private final int[] triggerCounts;
+
+    private final List<Input> inputs = new ArrayList<>();
+    private final List<Input> supplierInputs = new ArrayList<>();
+    private final List<Input> interruptInputs = new ArrayList<>();
+    private final List<AsynchronousInterrupt> interrupts = new ArrayList<>();
+    private final AtomicInteger pendingInterrupts = new AtomicInteger();
+    private final Runnable tickListener = this::poll;
+
+    private int[] queue = new int[0];
+    private int queueSize = 0;
+    private long polledCycle = Long.MIN_VALUE;
+
+    /**
+     * Create an event queue that polls itself on every {@link LoopClock#tick()}
+     *
+     * @param controllers controllers whose buttons, DPAD and triggers can be bound
+     */
+    public ButtonEventQueue(@NotNull GenericHID... controllers) {
+        this.snapshots = new HIDStateSnapshot[controllers.length];
+        this.previousMasks = new long[controllers.length];
+        this.watchedMasks = new long[controllers.length];
+        this.bitInputs = new int[controllers.length][Long.SIZE];
+        this.triggerAxes = new int[controllers.length][kMaxTriggers];
+        this.triggerThresholds = new double[controllers.length][kMaxTriggers];
+        this.triggerCounts = new int[controllers.length];
+
+        for (int i = 0; i < controllers.length; i++) {
+            snapshots[i] = HIDStateSnapshot.getInstance(controllers[i].getPort());
+            previousMasks[i] = getMask(i);
+        }
+
+        LoopClock.addTickListener(tickListener);
+    }
+
+    private long getMask(int controllerIndex) {
+        HIDStateSnapshot snapshot = snapshots[controllerIndex];
+        long mask = (snapshot.getButtons() & 0xFFFFFFFFL) | ((long) snapshot.getPOVMask() << kPOVShift);
+
+        for (int i = 0; i < triggerCounts[controllerIndex]; i++) {
+            if (snapshot.getRawAxis(triggerAxes[controllerIndex][i]) > triggerThresholds[controllerIndex][i])
+                mask |= 1L << (kTriggerShift + i);
+        }
+
+        return mask;
+    }
+
+    private int getControllerIndex(GenericHID controller) {
+        for (int i = 0; i < snapshots.length; i++) {
+            if (snapshots[i].getPort() == controller.getPort())
+                return i;
+        }
+
+        throw new IllegalArgumentException("Controller on port " + controller.getPort() + " was not given to the queue");
+    }
+
+    private Input addBitInput(int controllerIndex, int bit) {
+        if ((watchedMasks[controllerIndex] & (1L << bit)) != 0)
+            return inputs.get(bitInputs[controllerIndex][bit]);
+
+        Input input = createInput((previousMasks[controllerIndex] & (1L << bit)) != 0);
+        bitInputs[controllerIndex][bit] = input.id;
+        watchedMasks[controllerIndex] |= 1L << bit;
+
+        return input;
+    }
+
+    private Input createInput(boolean initialState) {
+        Input input = new Input(inputs.size(), initialState);
+        inputs.add(input);
+
+        // Every input can change at most once per poll
+        if (queue.length < inputs.size())
+            queue = new int[Math.max(inputs.size(), queue.length * 2)];
+
+        return input;
+    }
+
+    /**
+     * Get an input for a button on a controller. The same input is returned if the button was already added
+     *
+     * @param controller controller the button is on, which must have been given to the constructor
+     * @param button button number, starting at 1
+     * @return button input
+     */
+    public Input addButton(@NotNull GenericHID controller, int button) {
+        if (!(1 <= button && button <= kPOVShift))
+            throw new IllegalArgumentException("Button must be within 1-" + kPOVShift);
+
+        return addBitInput(getControllerIndex(controller), button - 1);
+    }
+
+    /**
+     * Get an input for a direction on a controller's DPAD, replacing an
+     * {@link org.talon540.control.XboxController.XboxControllerDPADButton}. The same input is returned if the direction
+     * was already added
+     *
+     * @param controller controller the DPAD is on, which must have been given to the constructor
+     * @param direction DPAD direction
+     * @return DPAD input
+     */
+    public Input addDPAD(@NotNull GenericHID controller, @NotNull DPAD direction) {
+        return addBitInput(getControllerIndex(controller), kPOVShift + direction.POV / 45);
+    }
+
+    /**
+     * Get an input that is pressed while an axis is above a threshold. The same input is returned if the axis was
+     * already added with the same threshold
+     *
+     * @param controller controller the axis is on, which must have been given to the constructor
+     * @param axis axis index, starting at 0
+     * @param threshold value the axis must be above for the input to be pressed
+     * @return axis input
+     */
+    public Input addAxisThreshold(@NotNull GenericHID controller, int axis, double threshold) {
+        int controllerIndex = getControllerIndex(controller);
+        int count = triggerCounts[controllerIndex];
+
+        for (int i = 0; i < count; i++) {
+            if (triggerAxes[controllerIndex][i] == axis && triggerThresholds[controllerIndex][i] == threshold)
+                return inputs.get(bitInputs[controllerIndex][kTriggerShift + i]);
+        }
+
+        if (count == kMaxTriggers)
+            throw new IllegalArgumentException("A controller can have at most " + kMaxTriggers + " axis inputs");
+
+        triggerAxes[controllerIndex][count] = axis;
+        triggerThresholds[controllerIndex][count] = threshold;
+        triggerCounts[controllerIndex]++;
+
+        int bit = kTriggerShift + count;
+        if (snapshots[controllerIndex].getRawAxis(axis) > threshold)
+            previousMasks[controllerIndex] |= 1L << bit;
+
+        return addBitInput(controllerIndex, bit);
+    }
+
+    /**
+     * Get an input for a trigger on an xbox controller, replacing an {@link XboxControllerTriggerButton}
+     *
+     * @param controller controller the trigger is on, which must have been given to the constructor
+     * @param trigger the selected trigger
+     * @param threshold value the trigger must be above for the input to be pressed
+     * @return trigger input
+     */
+    public Input addTrigger(@NotNull XboxController controller, @NotNull Triggers trigger, double threshold) {
+        return addAxisThreshold(
+                controller,
+                trigger.axis,
+                threshold
+        );
+    }
+
+    /**
+     * Get an input for a trigger on an xbox controller with the default threshold
+     *
+     * @param controller controller the trigger is on, which must have been given to the constructor
+     * @param trigger the selected trigger
+     * @return trigger input
+     */
+    public Input addTrigger(@NotNull XboxController controller, @NotNull Triggers trigger) {
+        return addTrigger(
+                controller,
+                trigger,
+                XboxControllerTriggerButton.kDefaultThreshold
+        );
+    }
+
+    /**
+     * Get an input for a proximity sensor. The sensor's DIO channel is watched with an interrupt on both edges, and the
+     * sensor is only read in a poll after an edge was seen
+     *
+     * @param sensor proximity sensor to watch
+     * @return sensor input
+     */
+    public Input addProximitySensor(@NotNull DigitalProximitySensor sensor) {
+        if (interruptInputs.size() == kMaxInterrupts)
+            throw new IllegalArgumentException("A queue can watch at most " + kMaxInterrupts + " sensors");
+
+        int bit = 1 << interruptInputs.size();
+        Input input = createInput(sensor.get());
+        input.source = sensor::get;
+        interruptInputs.add(input);
+
+        AsynchronousInterrupt interrupt = new AsynchronousInterrupt(
+                sensor.getDigitalInput(),
+                (rising, falling) -> pendingInterrupts.accumulateAndGet(bit, (pending, edge) -> pending | edge)
+        );
+        interrupt.setInterruptEdges(true, true);
+        interrupt.enable();
+        interrupts.add(interrupt);
+
+        return input;
+    }
+
+    /**
+     * Get an input that is read from a supplier once per period
+     *
+     * @param supplier supplier of the input's state
+     * @param periodCycles number of loops between reads
+     * @param phaseCycles offset in loops of the reads within each period [0, period)
+     * @return supplier input
+     */
+    public Input addInput(@NotNull BooleanSupplier supplier, int periodCycles, int phaseCycles) {
+        if (periodCycles <= 0)
+            throw new IllegalArgumentException("Poll period must be greater than 0");
+        if (!(0 <= phaseCycles && phaseCycles < periodCycles))
+            throw new IllegalArgumentException("Poll phase must be within [0, period)");
+
+        Input input = createInput(supplier.getAsBoolean());
+        input.source = supplier;
+        input.periodCycles = periodCycles;
+        input.phaseCycles = phaseCycles;
+        supplierInputs.add(input);
+
+        return input;
+    }
+
+    /**
+     * Get an input that is read from a supplier once per loop, such as a sensor or an existing {@link Button}
+     *
+     * @param supplier supplier of the input's state
+     * @return supplier input
+     */
+    public Input addInput(@NotNull BooleanSupplier supplier) {
+        return addInput(
+                supplier,
+                1,
+                0
+        );
+    }
+
+    /**
+     * Get an input for a {@link PolledButton}, such as a {@link UserButton} or {@link BatteryVoltageCheck}, read with
+     * the button's own period and phase
+     *
+     * @param button button to read
+     * @return button input
+     */
+    public Input addInput(@NotNull PolledButton button) {
+        return addInput(
+                button::get,
+                button.getPeriod(),
+                button.getPhase()
+        );
+    }
+
+    /**
+     * Find changed inputs and apply their events. Called by {@link LoopClock#tick()}, and does nothing if the queue was
+     * already polled in the current cycle
+     *
+     * @return number of events applied
+     */
+    public int poll() {
+        long cycle = LoopClock.getCycle();
+        if (cycle == polledCycle)
+            return 0;
+        polledCycle = cycle;
+
+        for (int i = 0; i < snapshots.length; i++) {
+            long mask = getMask(i);
+            long changed = (mask ^ previousMasks[i]) & watchedMasks[i];
+            previousMasks[i] = mask;
+
+            while (changed != 0) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                push(bitInputs[i][bit], (mask & (1L << bit)) != 0);
+                changed &= changed - 1;
+            }
+        }
+
+        int pending = pendingInterrupts.getAndSet(0);
+        while (pending != 0) {
+            pushIfChanged(interruptInputs.get(Integer.numberOfTrailingZeros(pending)));
+            pending &= pending - 1;
+        }
+
+        for (int i = 0; i < supplierInputs.size(); i++) {
+            Input input = supplierInputs.get(i);
+            if (Math.floorMod(cycle - input.phaseCycles, input.periodCycles) == 0)
+                pushIfChanged(input);
+        }
+
+        int events = queueSize;
+        for (int i = 0; i < queueSize; i++) {
+            int event = queue[i];
+            inputs.get(event >>> 1).pressed = (event & 1) != 0;
+        }
+        queueSize = 0;
+
+        return events;
+    }
+
+    private void pushIfChanged(Input input) {
+        boolean state = input.source.getAsBoolean();
+        if (state != input.pressed)
+            push(input.id, state);
+    }
+
+    private void push(int inputId, boolean pressed) {
+        queue[queueSize++] = (inputId << 1) | (pressed ? 1 : 0);
+    }
+
+    /**
+     * Stop polling on {@link LoopClock#tick()} and close the interrupts watching proximity sensors
+     */
+    @Override
+    public void close() {
+        LoopClock.removeTickListener(tickListener);
+
+        for (AsynchronousInterrupt interrupt : interrupts) {
+            interrupt.close();
+        }
+        interrupts.clear();
+    }
+
+    /**
+     * An input watched by the queue. Its state only changes when the queue applies an event for it, so it can be bound
+     * with any {@link Button} binding
+     */
+    public static class Input extends Button {
+        private final int id;
+
+        private BooleanSupplier source;
+        private int periodCycles = 1, phaseCycles;
+        private boolean pressed;
+
+        private Input(int id, boolean pressed) {
+            this.id = id;
+            this.pressed = pressed;
+        }
+
+        /**
+         * Whether the input was pressed as of the last poll
+         *
+         * @return if the input is pressed
+         */
+        @Override
+        public boolean get() {
+            return pressed;
+        }
+    }
+}
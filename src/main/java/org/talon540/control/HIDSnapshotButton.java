@@ -0,0 +1,30 @@
+package org.talon540.control;
+
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj2.command.button.JoystickButton;
+
+/**
+ * A {@link JoystickButton} that reads from the shared {@link HIDStateSnapshot} of its port instead of polling the
+ * driver station
+ */
+public class HIDSnapshotButton extends JoystickButton {
+    private final HIDStateSnapshot snapshot;
+    private final int buttonNumber;
+
+    /**
+     * Create a button on a joystick
+     *
+     * @param joystick the joystick the button is on
+     * @param buttonNumber button number, starting at 1
+     */
+    public HIDSnapshotButton(GenericHID joystick, int buttonNumber) {
+        super(joystick, buttonNumber);
+        this.snapshot = HIDStateSnapshot.getInstance(joystick.getPort());
+        this.buttonNumber = buttonNumber;
+    }
+
+    @Override
+    public boolean get() {
+        return snapshot.getRawButton(buttonNumber);
+    }
+}
@@ -0,0 +1,155 @@
+package org.talon540.control;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * The buttons, axes and POV of a single driver station port, read once per loop cycle and shared by every button on
+ * that port. The first read in a new {@link LoopClock} cycle refreshes the snapshot, so buttons read the snapshot
+ * instead of the driver station and polling cost stays flat as bindings are added. Call {@link LoopClock#tick()} at the
+ * start of each loop so every binding in a loop sees the same state.
+ * <p>
+ * The POV is decoded into a bitmask of the eight directions (bit 0 is north, going clockwise) through a precomputed
+ * table, so direction checks are a single mask test.
+ */
+public class HIDStateSnapshot {
+    /**
+     * Max number of axes reported by the driver station
+     */
+    public static final int kMaxAxes = 12;
+
+    private static final HIDStateSnapshot[] instances = new HIDStateSnapshot[DriverStation.kJoystickPorts];
+    private static final int[] kPOVMasks = new int[8];
+
+    static {
+        for (int i = 0; i < kPOVMasks.length; i++) {
+            kPOVMasks[i] = 1 << i;
+        }
+    }
+
+    private final int port;
+    private final double[] axes = new double[kMaxAxes];
+
+    private int buttons;
+    private int axisCount;
+    private int pov = -1;
+    private int povMask;
+    private long refreshedCycle;
+
+    private HIDStateSnapshot(int port) {
+        this.port = port;
+
+        refresh();
+    }
+
+    /**
+     * Get the shared snapshot of a driver station port, creating it the first time it is requested
+     *
+     * @param port port on the driverstation
+     * @return snapshot of the port
+     */
+    public static synchronized HIDStateSnapshot getInstance(int port) {
+        if (!(0 <= port && port < instances.length))
+            throw new IllegalArgumentException("Port must be within 0-" + (instances.length - 1));
+
+        if (instances[port] == null)
+            instances[port] = new HIDStateSnapshot(port);
+
+        return instances[port];
+    }
+
+    /**
+     * Convert a POV angle into a direction bitmask. Returns 0 if the POV is not pressed or not a multiple of 45
+     *
+     * @param pov POV angle in degrees (clockwise) where 0 is North
+     * @return direction bitmask
+     */
+    public static int getPOVMask(int pov) {
+        if (pov < 0 || pov % 45 != 0 || pov >= 360)
+            return 0;
+
+        return kPOVMasks[pov / 45];
+    }
+
+    private void refreshIfStale() {
+        if (refreshedCycle != LoopClock.getCycle())
+            refresh();
+    }
+
+    /**
+     * Read the current state of the port from the driver station. Called automatically by the first read in each loop
+     * cycle
+     */
+    public void refresh() {
+        refreshedCycle = LoopClock.getCycle();
+        buttons = DriverStation.getStickButtons(port);
+
+        axisCount = Math.min(DriverStation.getStickAxisCount(port), kMaxAxes);
+        for (int i = 0; i < axisCount; i++) {
+            axes[i] = DriverStation.getStickAxis(port, i);
+        }
+
+        pov = DriverStation.getStickPOVCount(port) > 0 ? DriverStation.getStickPOV(port, 0) : -1;
+        povMask = getPOVMask(pov);
+    }
+
+    /**
+     * Get the port the snapshot reads from
+     *
+     * @return port on the driverstation
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Get the value of a button in the snapshot
+     *
+     * @param button button number, starting at 1
+     * @return if the button is pressed
+     */
+    public boolean getRawButton(int button) {
+        refreshIfStale();
+        return button > 0 && (buttons & (1 << (button - 1))) != 0;
+    }
+
+    /**
+     * Get the state of every button in the snapshot, where bit 0 is button 1
+     *
+     * @return button bitmask
+     */
+    public int getButtons() {
+        refreshIfStale();
+        return buttons;
+    }
+
+    /**
+     * Get the value of an axis in the snapshot. Returns 0 if the axis doesn't exist
+     *
+     * @param axis axis index, starting at 0
+     * @return axis value [-1, 1]
+     */
+    public double getRawAxis(int axis) {
+        refreshIfStale();
+        return 0 <= axis && axis < axisCount ? axes[axis] : 0;
+    }
+
+    /**
+     * Get the angle of the first POV in the snapshot. Returns -1 if the POV is not pressed
+     *
+     * @return POV angle in degrees
+     */
+    public int getPOV() {
+        refreshIfStale();
+        return pov;
+    }
+
+    /**
+     * Get the directions pressed on the first POV in the snapshot, where bit 0 is north going clockwise
+     *
+     * @return direction bitmask
+     */
+    public int getPOVMask() {
+        refreshIfStale();
+        return povMask;
+    }
+}
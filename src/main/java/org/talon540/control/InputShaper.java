@@ -0,0 +1,256 @@
+package org.talon540.control;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Shapes raw joystick input into a drive command. Input passes through a deadband (per axis or radial across both
+ * axes), a response curve, a scale and an optional slew rate limit. {@link #calculate(double)} and
+ * {@link #calculateRadial(double, double, double[])} each keep their own slew rate state, so a shaper should only be
+ * used for one stick or one axis. The slew rate limit is timed with the FPGA timestamp by default, or with a time source
+ * given to the constructor.
+ * <p>
+ * The response curve is precomputed into a lookup table when it is set, so shaping an axis costs a table lookup and a
+ * linear interpolation. Curves are applied to the magnitude of the input after the deadband and the sign is restored
+ * afterwards, so they only need to be defined over [0, 1].
+ */
+public class InputShaper {
+    private static final int kTableSize = 257;
+
+    private final double[] curveTable = new double[kTableSize];
+    private final DoubleSupplier timeSource;
+    private final Limiter axisLimiter = new Limiter(), xLimiter = new Limiter(), yLimiter = new Limiter();
+
+    private double deadband;
+    private double scale = 1;
+    private double slewRate;
+
+    /**
+     * Create a shaper with a linear response
+     *
+     * @param deadband minimum magnitude required to bypass the deadband [0, 1)
+     * @param timeSource supplier of the current time in seconds, used to time the slew rate limit
+     */
+    public InputShaper(double deadband, @NotNull DoubleSupplier timeSource) {
+        this.timeSource = timeSource;
+        setDeadband(deadband);
+        setLinearCurve();
+    }
+
+    /**
+     * Create a shaper with a linear response whose slew rate limit is timed with the FPGA timestamp
+     *
+     * @param deadband minimum magnitude required to bypass the deadband [0, 1)
+     */
+    public InputShaper(double deadband) {
+        this(
+                deadband,
+                Timer::getFPGATimestamp
+        );
+    }
+
+    /**
+     * Change the deadband. Input within the deadband is 0 and input outside of it is rescaled to start from 0
+     *
+     * @param deadband minimum magnitude required to bypass the deadband [0, 1)
+     */
+    public void setDeadband(double deadband) {
+        if (!(0 <= deadband && deadband < 1))
+            throw new IllegalArgumentException("Deadband must be within [0, 1)");
+        this.deadband = deadband;
+    }
+
+    /**
+     * Get the current deadband
+     *
+     * @return deadband
+     */
+    public double getDeadband() {
+        return deadband;
+    }
+
+    /**
+     * Set the response curve and precompute it into the lookup table
+     *
+     * @param curve function mapping an input magnitude [0, 1] to an output magnitude [0, 1]
+     */
+    public void setCurve(DoubleUnaryOperator curve) {
+        for (int i = 0; i < kTableSize; i++) {
+            curveTable[i] = curve.applyAsDouble((double) i / (kTableSize - 1));
+        }
+    }
+
+    /**
+     * Use a linear response, where output is equal to input
+     */
+    public void setLinearCurve() {
+        setCurve(x -> x);
+    }
+
+    /**
+     * Use a cubic response that blends a linear and cubic curve, giving finer control near the center of the stick
+     *
+     * @param weight weight of the cubic term [0, 1], where 0 is linear and 1 is fully cubic
+     */
+    public void setCubicCurve(double weight) {
+        if (!(0 <= weight && weight <= 1))
+            throw new IllegalArgumentException("Cubic weight must be within [0, 1]");
+
+        setCurve(x -> weight * x * x * x + (1 - weight) * x);
+    }
+
+    /**
+     * Use an exponential response, where output is input raised to a power
+     *
+     * @param exponent exponent of the curve, must be greater than 0
+     */
+    public void setExponentialCurve(double exponent) {
+        if (exponent <= 0)
+            throw new IllegalArgumentException("Exponent must be greater than 0");
+
+        setCurve(x -> Math.pow(x, exponent));
+    }
+
+    /**
+     * Set the value the shaped output is multiplied by
+     *
+     * @param scale output scale
+     */
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Get the value the shaped output is multiplied by
+     *
+     * @return output scale
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Limit how quickly the output of {@link #calculate(double)} and {@link #calculateRadial(double, double, double[])}
+     * can change
+     *
+     * @param unitsPerSecond max rate of change in units per second, or 0 to disable the limit
+     */
+    public void setSlewRate(double unitsPerSecond) {
+        if (!(unitsPerSecond >= 0))
+            throw new IllegalArgumentException("Slew rate cannot be negative");
+
+        slewRate = unitsPerSecond;
+        reset();
+    }
+
+    /**
+     * Get the max rate of change of the output in units per second, or 0 if the limit is disabled
+     *
+     * @return slew rate
+     */
+    public double getSlewRate() {
+        return slewRate;
+    }
+
+    /**
+     * Apply the deadband, curve and scale to a single axis. Does not apply the slew rate limit
+     *
+     * @param val current val within domain [-1, 1]
+     * @return shaped value
+     */
+    public double shape(double val) {
+        double magnitude = Math.abs(val);
+        if (magnitude <= deadband)
+            return 0.0;
+
+        double shaped = lookup((Math.min(magnitude, 1) - deadband) / (1.0 - deadband)) * scale;
+        return val > 0 ? shaped : -shaped;
+    }
+
+    /**
+     * Shape a single axis with an axial deadband and the slew rate limit
+     *
+     * @param val current val within domain [-1, 1]
+     * @return shaped value
+     */
+    public double calculate(double val) {
+        double shaped = shape(val);
+        return slewRate == 0 ? shaped : axisLimiter.calculate(shaped, slewRate, timeSource.getAsDouble());
+    }
+
+    /**
+     * Shape both axes of a stick with a radial deadband and the slew rate limit. The deadband and curve are applied to
+     * the distance of the stick from its center, so the direction of the stick is kept
+     *
+     * @param x current x val within domain [-1, 1]
+     * @param y current y val within domain [-1, 1]
+     * @param out array of at least length 2 to write the shaped x and y values to
+     */
+    public void calculateRadial(double x, double y, double[] out) {
+        double magnitude = Math.hypot(x, y);
+        double shapedX = 0, shapedY = 0;
+
+        if (magnitude > deadband) {
+            double shapedMagnitude = lookup((Math.min(magnitude, 1) - deadband) / (1.0 - deadband)) * scale;
+            shapedX = x / magnitude * shapedMagnitude;
+            shapedY = y / magnitude * shapedMagnitude;
+        }
+
+        if (slewRate == 0) {
+            out[0] = shapedX;
+            out[1] = shapedY;
+            return;
+        }
+
+        double timestamp = timeSource.getAsDouble();
+        out[0] = xLimiter.calculate(shapedX, slewRate, timestamp);
+        out[1] = yLimiter.calculate(shapedY, slewRate, timestamp);
+    }
+
+    /**
+     * Reset the slew rate limit so the next output isn't limited by the previous one
+     */
+    public void reset() {
+        if (slewRate == 0)
+            return;
+
+        double timestamp = timeSource.getAsDouble();
+        axisLimiter.reset(timestamp);
+        xLimiter.reset(timestamp);
+        yLimiter.reset(timestamp);
+    }
+
+    private double lookup(double x) {
+        double index = x * (kTableSize - 1);
+        int lower = (int) index;
+        if (lower >= kTableSize - 1)
+            return curveTable[kTableSize - 1];
+
+        double fraction = index - lower;
+        return curveTable[lower] + fraction * (curveTable[lower + 1] - curveTable[lower]);
+    }
+
+    /**
+     * Slew rate state of one output, starting from 0 at the time it was reset
+     */
+    private static class Limiter {
+        private double value, timestamp;
+
+        private void reset(double timestamp) {
+            this.value = 0;
+            this.timestamp = timestamp;
+        }
+
+        private double calculate(double input, double rate, double timestamp) {
+            double elapsed = timestamp - this.timestamp;
+            this.timestamp = timestamp;
+
+            value += MathUtil.clamp(input - value, -rate * elapsed, rate * elapsed);
+            return value;
+        }
+    }
+}
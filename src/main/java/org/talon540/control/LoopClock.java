@@ -0,0 +1,127 @@
+package org.talon540.control;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Counts robot loop cycles so state that is read many times per loop, such as controller buttons or motor sensors, can
+ * be refreshed lazily by whichever reader comes first in a cycle. Refreshes then don't depend on registration order,
+ * and nothing has to be registered with the {@link edu.wpi.first.wpilibj2.command.CommandScheduler}.
+ * <p>
+ * Robot code should call {@link #tick()} once at the start of each loop, such as first thing in
+ * {@code robotPeriodic} before the scheduler runs. Once {@link #tick()} has been called, cycles only change when it is
+ * called, so every read within one loop sees the same cycle even if the loop overruns. Tasks that need to run once at
+ * the start of each loop, such as {@link ButtonEventQueue#poll()}, can be added with {@link #addTickListener(Runnable)}.
+ * <p>
+ * Until {@link #tick()} is first called, a new cycle starts on the first read after half the loop period has passed
+ * since the current cycle started. This fallback is timed with {@link System#nanoTime()}, which doesn't call into the
+ * HAL, but a loop that runs longer than half its period can see two cycles.
+ */
+public final class LoopClock {
+    /**
+     * Default robot loop period in seconds
+     */
+    public static final double kDefaultPeriodSeconds = 0.02;
+
+    private static long windowNanos = toWindowNanos(kDefaultPeriodSeconds);
+    private static long cycleStartNanos = System.nanoTime();
+    private static long cycle;
+    private static boolean ticked;
+    private static volatile Runnable[] tickListeners = new Runnable[0];
+
+    private LoopClock() {}
+
+    private static long toWindowNanos(double periodSeconds) {
+        return (long) (periodSeconds * 1e9 / 2);
+    }
+
+    /**
+     * Get the current loop cycle. If {@link #tick()} has never been called, a new cycle is started if enough time has
+     * passed since the current cycle started
+     *
+     * @return cycle number
+     */
+    public static synchronized long getCycle() {
+        if (!ticked) {
+            long now = System.nanoTime();
+            if (now - cycleStartNanos >= windowNanos) {
+                cycleStartNanos = now;
+                cycle++;
+            }
+        }
+
+        return cycle;
+    }
+
+    /**
+     * Start a new cycle. Should be called once at the start of each robot loop, after which cycles are no longer
+     * started by time
+     *
+     * @return new cycle number
+     */
+    public static long tick() {
+        long newCycle;
+        synchronized (LoopClock.class) {
+            ticked = true;
+            newCycle = ++cycle;
+        }
+
+        // Listeners run outside the lock so they can read the cycle
+        Runnable[] listeners = tickListeners;
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+
+        return newCycle;
+    }
+
+    /**
+     * Run a task every time {@link #tick()} starts a new cycle, in the order tasks were added
+     *
+     * @param listener task to run
+     */
+    public static synchronized void addTickListener(@NotNull Runnable listener) {
+        Runnable[] listeners = new Runnable[tickListeners.length + 1];
+        System.arraycopy(tickListeners, 0, listeners, 0, tickListeners.length);
+        listeners[tickListeners.length] = listener;
+        tickListeners = listeners;
+    }
+
+    /**
+     * Stop running a task added with {@link #addTickListener(Runnable)}
+     *
+     * @param listener task to remove
+     */
+    public static synchronized void removeTickListener(@NotNull Runnable listener) {
+        for (int i = 0; i < tickListeners.length; i++) {
+            if (tickListeners[i] != listener)
+                continue;
+
+            Runnable[] listeners = new Runnable[tickListeners.length - 1];
+            System.arraycopy(tickListeners, 0, listeners, 0, i);
+            System.arraycopy(tickListeners, i + 1, listeners, i, listeners.length - i);
+            tickListeners = listeners;
+            return;
+        }
+    }
+
+    /**
+     * Whether {@link #tick()} has been called, meaning cycles are marked explicitly instead of by time
+     *
+     * @return if cycles are marked by {@link #tick()}
+     */
+    public static synchronized boolean isTicked() {
+        return ticked;
+    }
+
+    /**
+     * Set the period of the robot loop, used to tell cycles apart until {@link #tick()} is called
+     *
+     * @param periodSeconds loop period in seconds
+     */
+    public static synchronized void setPeriod(double periodSeconds) {
+        if (!(periodSeconds > 0))
+            throw new IllegalArgumentException("Period must be greater than 0");
+
+        windowNanos = toWindowNanos(periodSeconds);
+    }
+}
@@ -0,0 +1,118 @@
+package org.talon540.control;
+
+import edu.wpi.first.wpilibj2.command.button.Button;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link Button} whose source only needs to be read at a slow rate. The source is polled at most once per period and
+ * the cached result is returned in between, no matter how many bindings read the button.
+ * <p>
+ * Periods are counted in {@link LoopClock} cycles, so checking whether a poll is due doesn't read the FPGA time. Loops
+ * are split into slots of one period, offset by the phase, and the source is polled on the first read in each slot.
+ * Giving slow buttons different phases keeps their polls from landing in the same loop.
+ */
+public abstract class PolledButton extends Button {
+    private final int periodCycles, phaseCycles;
+
+    private long lastSlot = Long.MIN_VALUE;
+    private boolean cachedValue;
+
+    /**
+     * Create a button that is polled once per period
+     *
+     * @param periodCycles number of loops between polls
+     * @param phaseCycles offset in loops of the polls within each period [0, period)
+     */
+    protected PolledButton(int periodCycles, int phaseCycles) {
+        if (periodCycles <= 0)
+            throw new IllegalArgumentException("Poll period must be greater than 0");
+        if (!(0 <= phaseCycles && phaseCycles < periodCycles))
+            throw new IllegalArgumentException("Poll phase must be within [0, period)");
+
+        this.periodCycles = periodCycles;
+        this.phaseCycles = phaseCycles;
+    }
+
+    /**
+     * Create a button that is polled once per period with no phase offset
+     *
+     * @param periodCycles number of loops between polls
+     */
+    protected PolledButton(int periodCycles) {
+        this(
+                periodCycles,
+                0
+        );
+    }
+
+    /**
+     * Create a polled button from a supplier
+     *
+     * @param source supplier of the button's state
+     * @param periodCycles number of loops between polls
+     * @param phaseCycles offset in loops of the polls within each period [0, period)
+     * @return polled button
+     */
+    public static PolledButton of(@NotNull BooleanSupplier source, int periodCycles, int phaseCycles) {
+        return new PolledButton(periodCycles, phaseCycles) {
+            @Override
+            protected boolean poll() {
+                return source.getAsBoolean();
+            }
+        };
+    }
+
+    /**
+     * Create a polled button from a supplier with no phase offset
+     *
+     * @param source supplier of the button's state
+     * @param periodCycles number of loops between polls
+     * @return polled button
+     */
+    public static PolledButton of(@NotNull BooleanSupplier source, int periodCycles) {
+        return of(
+                source,
+                periodCycles,
+                0
+        );
+    }
+
+    /**
+     * Read the state of the button from its source
+     *
+     * @return if the button is pressed
+     */
+    protected abstract boolean poll();
+
+    @Override
+    public boolean get() {
+        long slot = Math.floorDiv(LoopClock.getCycle() - phaseCycles, periodCycles);
+
+        if (slot != lastSlot) {
+            lastSlot = slot;
+            cachedValue = poll();
+        }
+
+        return cachedValue;
+    }
+
+    /**
+     * Get the number of loops between polls
+     *
+     * @return poll period in loops
+     */
+    public int getPeriod() {
+        return periodCycles;
+    }
+
+    /**
+     * Get the offset of the polls within each period
+     *
+     * @return poll phase in loops
+     */
+    public int getPhase() {
+        return phaseCycles;
+    }
+}
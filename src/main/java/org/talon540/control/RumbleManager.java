@@ -0,0 +1,133 @@
+package org.talon540.control;
+
+import edu.wpi.first.wpilibj.GenericHID.RumbleType;
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.control.XboxController.TalonXboxController;
+
+/**
+ * Manages the rumble output of a controller. The desired intensity of each side is held by the manager and written to
+ * the controller on every update. {@link TalonXboxController#setRumble(RumbleType, double)} skips unchanged values, so
+ * commands can set the rumble every loop without sending redundant output.
+ * <p>
+ * Timed {@link RumblePattern}s can be played on either side and are advanced by {@link #update()}, after which the side
+ * returns to its held intensity. {@link #update()} should be called once per loop.
+ */
+public class RumbleManager {
+    private final TalonXboxController controller;
+    private final Side left = new Side(RumbleType.kLeftRumble);
+    private final Side right = new Side(RumbleType.kRightRumble);
+
+    /**
+     * Create a rumble manager
+     *
+     * @param controller controller to rumble
+     */
+    public RumbleManager(@NotNull TalonXboxController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Hold both sides at an intensity. Patterns that are playing take priority until they finish
+     *
+     * @param intensity rumble intensity [0, 1]
+     */
+    public void setRumble(double intensity) {
+        setRumble(intensity, intensity);
+    }
+
+    /**
+     * Hold each side at an intensity. Patterns that are playing take priority until they finish
+     *
+     * @param leftIntensity left rumble intensity [0, 1]
+     * @param rightIntensity right rumble intensity [0, 1]
+     */
+    public void setRumble(double leftIntensity, double rightIntensity) {
+        left.heldIntensity = leftIntensity;
+        right.heldIntensity = rightIntensity;
+        update();
+    }
+
+    /**
+     * Stop all rumble, including patterns that are playing
+     */
+    public void stop() {
+        left.pattern = null;
+        right.pattern = null;
+        setRumble(0);
+    }
+
+    /**
+     * Play a pattern on both sides, replacing any patterns that are playing
+     *
+     * @param pattern pattern to play
+     */
+    public void play(@NotNull RumblePattern pattern) {
+        double timestamp = Timer.getFPGATimestamp();
+        left.play(pattern, timestamp);
+        right.play(pattern, timestamp);
+        update();
+    }
+
+    /**
+     * Play a pattern on one side, replacing any pattern that is playing on that side
+     *
+     * @param pattern pattern to play
+     * @param type side to play the pattern on
+     */
+    public void play(@NotNull RumblePattern pattern, @NotNull RumbleType type) {
+        (type == RumbleType.kLeftRumble ? left : right).play(pattern, Timer.getFPGATimestamp());
+        update();
+    }
+
+    /**
+     * Whether a pattern is playing on either side
+     *
+     * @return if a pattern is playing
+     */
+    public boolean isPlaying() {
+        return left.pattern != null || right.pattern != null;
+    }
+
+    /**
+     * Advance any playing patterns and write the intensities to the controller. Should be called once per loop
+     */
+    public void update() {
+        double timestamp = Timer.getFPGATimestamp();
+        left.update(timestamp);
+        right.update(timestamp);
+    }
+
+    private class Side {
+        private final RumbleType type;
+
+        private RumblePattern pattern;
+        private double patternStartTimestamp;
+        private double heldIntensity;
+
+        private Side(RumbleType type) {
+            this.type = type;
+        }
+
+        private void play(RumblePattern pattern, double timestamp) {
+            this.pattern = pattern;
+            this.patternStartTimestamp = timestamp;
+        }
+
+        private void update(double timestamp) {
+            double intensity = heldIntensity;
+
+            if (pattern != null) {
+                double elapsed = timestamp - patternStartTimestamp;
+
+                if (elapsed >= pattern.getDuration()) {
+                    pattern = null;
+                } else {
+                    intensity = pattern.getIntensity(elapsed);
+                }
+            }
+
+            controller.setRumble(type, intensity);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.talon540.control;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A timeline of rumble intensities played by a {@link RumbleManager}. A pattern is made of segments, each of which ramps
+ * linearly from a start to an end intensity over its duration. Patterns are immutable and can be reused and combined.
+ */
+public class RumblePattern {
+    private final double[] endTimes, startIntensities, endIntensities;
+
+    private RumblePattern(double[] durations, double[] startIntensities, double[] endIntensities) {
+        this.endTimes = new double[durations.length];
+        this.startIntensities = startIntensities;
+        this.endIntensities = endIntensities;
+
+        double time = 0;
+        for (int i = 0; i < durations.length; i++) {
+            if (durations[i] < 0)
+                throw new IllegalArgumentException("Segment duration cannot be negative");
+
+            time += durations[i];
+            endTimes[i] = time;
+        }
+    }
+
+    /**
+     * Create a pattern that holds an intensity
+     *
+     * @param intensity rumble intensity [0, 1]
+     * @param durationSeconds time in seconds to rumble for
+     * @return constant pattern
+     */
+    public static RumblePattern constant(double intensity, double durationSeconds) {
+        return ramp(intensity, intensity, durationSeconds);
+    }
+
+    /**
+     * Create a pattern that ramps linearly between two intensities
+     *
+     * @param startIntensity intensity at the start of the ramp [0, 1]
+     * @param endIntensity intensity at the end of the ramp [0, 1]
+     * @param durationSeconds time in seconds to ramp over
+     * @return ramp pattern
+     */
+    public static RumblePattern ramp(double startIntensity, double endIntensity, double durationSeconds) {
+        return new RumblePattern(
+                new double[]{durationSeconds},
+                new double[]{startIntensity},
+                new double[]{endIntensity}
+        );
+    }
+
+    /**
+     * Create a pattern of pulses separated by pauses
+     *
+     * @param intensity intensity of each pulse [0, 1]
+     * @param onSeconds length of each pulse in seconds
+     * @param offSeconds length of the pause after each pulse in seconds
+     * @param count number of pulses
+     * @return pulse pattern
+     */
+    public static RumblePattern pulse(double intensity, double onSeconds, double offSeconds, int count) {
+        if (count <= 0)
+            throw new IllegalArgumentException("Pulse count must be greater than 0");
+
+        double[] durations = new double[count * 2];
+        double[] intensities = new double[count * 2];
+
+        for (int i = 0; i < count; i++) {
+            durations[i * 2] = onSeconds;
+            intensities[i * 2] = intensity;
+            durations[i * 2 + 1] = offSeconds;
+        }
+
+        return new RumblePattern(
+                durations,
+                intensities,
+                intensities.clone()
+        );
+    }
+
+    /**
+     * Create a pattern that plays several patterns one after another
+     *
+     * @param patterns patterns to play in order
+     * @return combined pattern
+     */
+    public static RumblePattern sequence(@NotNull RumblePattern... patterns) {
+        int count = 0;
+        for (RumblePattern pattern : patterns) {
+            count += pattern.endTimes.length;
+        }
+
+        double[] durations = new double[count];
+        double[] startIntensities = new double[count];
+        double[] endIntensities = new double[count];
+
+        int index = 0;
+        for (RumblePattern pattern : patterns) {
+            for (int i = 0; i < pattern.endTimes.length; i++) {
+                durations[index] = pattern.endTimes[i] - (i == 0 ? 0 : pattern.endTimes[i - 1]);
+                startIntensities[index] = pattern.startIntensities[i];
+                endIntensities[index] = pattern.endIntensities[i];
+                index++;
+            }
+        }
+
+        return new RumblePattern(
+                durations,
+                startIntensities,
+                endIntensities
+        );
+    }
+
+    /**
+     * Get the total length of the pattern
+     *
+     * @return duration in seconds
+     */
+    public double getDuration() {
+        return endTimes.length == 0 ? 0 : endTimes[endTimes.length - 1];
+    }
+
+    /**
+     * Get the intensity of the pattern at a time. Returns 0 outside of the pattern
+     *
+     * @param timeSeconds time since the start of the pattern in seconds
+     * @return rumble intensity
+     */
+    public double getIntensity(double timeSeconds) {
+        if (timeSeconds < 0)
+            return 0;
+
+        double segmentStart = 0;
+        for (int i = 0; i < endTimes.length; i++) {
+            if (timeSeconds < endTimes[i]) {
+                double fraction = (timeSeconds - segmentStart) / (endTimes[i] - segmentStart);
+                return startIntensities[i] + fraction * (endIntensities[i] - startIntensities[i]);
+            }
+            segmentStart = endTimes[i];
+        }
+
+        return 0;
+    }
+}
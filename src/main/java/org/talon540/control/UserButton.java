@@ -1,11 +1,26 @@
 package org.talon540.control;
 
 import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj2.command.button.Button;
 
-public class UserButton extends Button {
+public class UserButton extends PolledButton {
+    /**
+     * Create a user button that is polled once per period
+     *
+     * @param periodCycles number of loops between polls
+     */
+    public UserButton(int periodCycles) {
+        super(periodCycles);
+    }
+
+    /**
+     * Create a user button that is polled once per loop, so a press is never missed however many bindings read it
+     */
+    public UserButton() {
+        this(1);
+    }
+
     @Override
-    public boolean get() {
+    protected boolean poll() {
         return RobotController.getUserButton();
     }
 }
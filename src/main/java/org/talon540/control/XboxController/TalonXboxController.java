@@ -1,13 +1,18 @@
 package org.talon540.control.XboxController;
 
 import edu.wpi.first.wpilibj.XboxController;
+import org.talon540.control.HIDStateSnapshot;
+import org.talon540.control.InputShaper;
+import org.talon540.control.RumbleManager;
 
 /**
  * Extends the normal WPI XboxController class with methods for calculating
  * deadband angles and normalizing the curve generated by changes in inputs
  */
 public class TalonXboxController extends XboxController {
-    private double deadband;
+    private final InputShaper leftShaper, rightShaper;
+    private double leftRumble = Double.NaN, rightRumble = Double.NaN;
+    private RumbleManager rumbleManager;
 
     public XboxControllerButtons buttons = new XboxControllerButtons(this);
 
@@ -17,7 +22,8 @@ public class TalonXboxController extends XboxController {
      */
     public TalonXboxController(int port, double deadbandPercentage) {
         super(port);
-        this.deadband = deadbandPercentage;
+        this.leftShaper = new InputShaper(deadbandPercentage);
+        this.rightShaper = new InputShaper(deadbandPercentage);
     }
 
     /**
@@ -34,7 +40,7 @@ public class TalonXboxController extends XboxController {
      * @return normalized X
      */
     public double getLeftDeadbandX() {
-        return checkDeadband(super.getLeftX());
+        return leftShaper.shape(super.getLeftX());
     }
 
     /**
@@ -44,7 +50,7 @@ public class TalonXboxController extends XboxController {
      * @return normalized Y
      */
     public double getLeftDeadbandY() {
-        return checkDeadband(super.getLeftY());
+        return leftShaper.shape(super.getLeftY());
     }
 
     /**
@@ -54,7 +60,7 @@ public class TalonXboxController extends XboxController {
      * @return normalized X
      */
     public double getRightDeadbandX() {
-        return checkDeadband(super.getRightX());
+        return rightShaper.shape(super.getRightX());
     }
 
     /**
@@ -64,16 +70,16 @@ public class TalonXboxController extends XboxController {
      * @return normalized Y
      */
     public double getRightDeadbandY() {
-        return checkDeadband(super.getRightY());
+        return rightShaper.shape(super.getRightY());
     }
 
     /**
-     * Change the currently set deadband. Must be within [-1, 1]
+     * Change the currently set deadband. Must be within [0, 1)
      * @param deadband new deadband val
      */
     public void setDeadband(double deadband) {
-        if(deadband > 1 || 0 > deadband) throw new IllegalArgumentException("Deadband cannot exceed max output");
-        this.deadband = deadband;
+        leftShaper.setDeadband(deadband);
+        rightShaper.setDeadband(deadband);
     }
 
     /**
@@ -81,7 +87,86 @@ public class TalonXboxController extends XboxController {
      * @return deadband
      */
     public double getDeadband() {
-        return deadband;
+        return leftShaper.getDeadband();
+    }
+
+    /**
+     * Get the shaper applied to the left joystick, used to configure its curve, scale and slew rate
+     *
+     * @return left joystick shaper
+     */
+    public InputShaper getLeftShaper() {
+        return leftShaper;
+    }
+
+    /**
+     * Get the shaper applied to the right joystick, used to configure its curve, scale and slew rate
+     *
+     * @return right joystick shaper
+     */
+    public InputShaper getRightShaper() {
+        return rightShaper;
+    }
+
+    /**
+     * Get the X and Y values of the left joystick shaped with a radial deadband and slew rate limit
+     *
+     * @param out array of at least length 2 to write the shaped X and Y to
+     */
+    public void getLeftShaped(double[] out) {
+        leftShaper.calculateRadial(super.getLeftX(), super.getLeftY(), out);
+    }
+
+    /**
+     * Get the X and Y values of the right joystick shaped with a radial deadband and slew rate limit
+     *
+     * @param out array of at least length 2 to write the shaped X and Y to
+     */
+    public void getRightShaped(double[] out) {
+        rightShaper.calculateRadial(super.getRightX(), super.getRightY(), out);
+    }
+
+    /**
+     * Get the snapshot of the controller's state shared by its buttons, which is refreshed once per loop cycle
+     *
+     * @return state snapshot
+     */
+    public HIDStateSnapshot getStateSnapshot() {
+        return HIDStateSnapshot.getInstance(getPort());
+    }
+
+    /**
+     * Set the rumble output of one side of the controller. The output is only written if it changed since the last
+     * call
+     *
+     * @param type which rumble value to set
+     * @param value rumble intensity [0, 1]
+     */
+    @Override
+    public void setRumble(RumbleType type, double value) {
+        if (type == RumbleType.kLeftRumble) {
+            if (value == leftRumble)
+                return;
+            leftRumble = value;
+        } else {
+            if (value == rightRumble)
+                return;
+            rightRumble = value;
+        }
+
+        super.setRumble(type, value);
+    }
+
+    /**
+     * Get the manager used to play rumble patterns on the controller, creating it the first time it is requested. Once
+     * created, {@link #startRumble(double)} and {@link #stopRumble()} go through the manager
+     *
+     * @return rumble manager
+     */
+    public RumbleManager getRumbleManager() {
+        if (rumbleManager == null)
+            rumbleManager = new RumbleManager(this);
+        return rumbleManager;
     }
 
     /**
@@ -90,6 +175,11 @@ public class TalonXboxController extends XboxController {
      * @param percent percent in [-1,1]
      */
     public void startRumble(double percent) {
+        if (rumbleManager != null) {
+            rumbleManager.setRumble(percent);
+            return;
+        }
+
         this.setRumble(RumbleType.kLeftRumble, percent);
         this.setRumble(RumbleType.kRightRumble, percent);
     }
@@ -98,27 +188,14 @@ public class TalonXboxController extends XboxController {
      * Stop the controller from rumbling
      */
     public void stopRumble() {
+        if (rumbleManager != null) {
+            rumbleManager.stop();
+            return;
+        }
+
         this.setRumble(RumbleType.kLeftRumble, 0);
         this.setRumble(RumbleType.kRightRumble, 0);
 
     }
 
-    /**
-     * Return 0 if the reported value is within the deadband
-     *
-     * @param val current val within domain [-1, 1]
-     * @return Checked deadband value
-     */
-    private double checkDeadband(double val) {
-        if (Math.abs(val) > deadband) {
-            if (val > 0.0) {
-                return (val - deadband) / (1.0 - deadband);
-            } else {
-                return (val + deadband) / (1.0 - deadband);
-            }
-        } else {
-            return 0.0;
-        }
-    }
-
 }
@@ -3,6 +3,7 @@ package org.talon540.control.XboxController;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.button.Button;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
+import org.talon540.control.HIDSnapshotButton;
 import org.talon540.control.XboxController.XboxControllerDPADButton.DPAD;
 import org.talon540.control.XboxController.XboxControllerTriggerButton.Triggers;
 
@@ -29,16 +30,16 @@ public class XboxControllerButtons {
     public final XboxControllerDPADButton DPAD_NORTHWEST;
 
     public XboxControllerButtons(XboxController controller) {
-        LEFT_BUMPER = new JoystickButton(controller, XboxController.Button.kLeftBumper.value);
-        RIGHT_BUMPER = new JoystickButton(controller, XboxController.Button.kRightBumper.value);
-        LEFT_STICK = new JoystickButton(controller, XboxController.Button.kLeftStick.value);
-        RIGHT_STICK = new JoystickButton(controller, XboxController.Button.kRightStick.value);
-        A = new JoystickButton(controller, XboxController.Button.kA.value);
-        B = new JoystickButton(controller, XboxController.Button.kB.value);
-        X = new JoystickButton(controller, XboxController.Button.kX.value);
-        Y = new JoystickButton(controller, XboxController.Button.kY.value);
-        BACK = new JoystickButton(controller, XboxController.Button.kBack.value);
-        START = new JoystickButton(controller, XboxController.Button.kStart.value);
+        LEFT_BUMPER = new HIDSnapshotButton(controller, XboxController.Button.kLeftBumper.value);
+        RIGHT_BUMPER = new HIDSnapshotButton(controller, XboxController.Button.kRightBumper.value);
+        LEFT_STICK = new HIDSnapshotButton(controller, XboxController.Button.kLeftStick.value);
+        RIGHT_STICK = new HIDSnapshotButton(controller, XboxController.Button.kRightStick.value);
+        A = new HIDSnapshotButton(controller, XboxController.Button.kA.value);
+        B = new HIDSnapshotButton(controller, XboxController.Button.kB.value);
+        X = new HIDSnapshotButton(controller, XboxController.Button.kX.value);
+        Y = new HIDSnapshotButton(controller, XboxController.Button.kY.value);
+        BACK = new HIDSnapshotButton(controller, XboxController.Button.kBack.value);
+        START = new HIDSnapshotButton(controller, XboxController.Button.kStart.value);
 
         LEFT_TRIGGER = new XboxControllerTriggerButton(controller, Triggers.LEFT_TRIGGER);
         RIGHT_TRIGGER = new XboxControllerTriggerButton(controller, Triggers.RIGHT_TRIGGER);
@@ -2,9 +2,10 @@ package org.talon540.control.XboxController;
 
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.button.Button;
+import org.talon540.control.HIDStateSnapshot;
 
 public class XboxControllerDPADButton extends Button {
-    private final XboxController controller;
+    private final HIDStateSnapshot snapshot;
     private final DPAD selectedButton;
 
     /**
@@ -14,20 +15,20 @@ public class XboxControllerDPADButton extends Button {
      * @param selectedButton the selected {@link DPAD} button
      */
     public XboxControllerDPADButton(XboxController controller, DPAD selectedButton) {
-        this.controller = controller;
+        this.snapshot = HIDStateSnapshot.getInstance(controller.getPort());
         this.selectedButton = selectedButton;
     }
 
     @Override
     public boolean get() {
-        return controller.getPOV() == selectedButton.POV;
+        return (snapshot.getPOVMask() & selectedButton.mask) != 0;
     }
 
     /**
      * Returns true if the requested button or either axis on either side of the button is true
      */
     public boolean getWithNeighbor() {
-        return get() || controller.getPOV() == selectedButton.POV + 45 || controller.getPOV() == selectedButton.POV - 45;
+        return (snapshot.getPOVMask() & selectedButton.neighborMask) != 0;
     }
 
     public enum DPAD {
@@ -45,8 +46,16 @@ public class XboxControllerDPADButton extends Button {
          */
         public final int POV;
 
+        /**
+         * Bitmask of the button and of the button with the buttons on either side of it, matching
+         * {@link HIDStateSnapshot#getPOVMask(int)}
+         */
+        private final int mask, neighborMask;
+
         DPAD(int pov) {
             this.POV = pov;
+            this.mask = HIDStateSnapshot.getPOVMask(pov);
+            this.neighborMask = mask | HIDStateSnapshot.getPOVMask((pov + 45) % 360) | HIDStateSnapshot.getPOVMask((pov + 315) % 360);
         }
 
     }
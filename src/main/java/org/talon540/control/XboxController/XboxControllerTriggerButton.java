@@ -2,9 +2,15 @@ package org.talon540.control.XboxController;
 
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.button.Button;
+import org.talon540.control.HIDStateSnapshot;
 
 public class XboxControllerTriggerButton extends Button {
-    private final XboxController controller;
+    /**
+     * Default threshold which will activate the button
+     */
+    public static final double kDefaultThreshold = 0.4;
+
+    private final HIDStateSnapshot snapshot;
     private final Triggers selectedTrigger;
     private final double activateThreshold;
 
@@ -16,7 +22,7 @@ public class XboxControllerTriggerButton extends Button {
      * @param activateThreshold threshold which will activate the button
      */
     public XboxControllerTriggerButton(XboxController controller, Triggers targetTrigger, double activateThreshold) {
-        this.controller = controller;
+        this.snapshot = HIDStateSnapshot.getInstance(controller.getPort());
         this.selectedTrigger = targetTrigger;
         this.activateThreshold = activateThreshold;
     }
@@ -28,24 +34,26 @@ public class XboxControllerTriggerButton extends Button {
      * @param targetTrigger the selected trigger {@link Triggers}
      */
     public XboxControllerTriggerButton(XboxController controller, Triggers targetTrigger) {
-        this(controller, targetTrigger, 0.4);
+        this(controller, targetTrigger, kDefaultThreshold);
     }
 
     @Override
     public boolean get() {
-        switch (selectedTrigger) {
-            case LEFT_TRIGGER:
-                return controller.getLeftTriggerAxis() > activateThreshold;
-            case RIGHT_TRIGGER:
-                return controller.getRightTriggerAxis() > activateThreshold;
-            default:
-                return false;
-        }
+        return snapshot.getRawAxis(selectedTrigger.axis) > activateThreshold;
     }
 
     public enum Triggers {
-        LEFT_TRIGGER,
-        RIGHT_TRIGGER
+        LEFT_TRIGGER(XboxController.Axis.kLeftTrigger.value),
+        RIGHT_TRIGGER(XboxController.Axis.kRightTrigger.value);
+
+        /**
+         * Index of the trigger's axis on the controller
+         */
+        public final int axis;
+
+        Triggers(int axis) {
+            this.axis = axis;
+        }
     }
 
 }
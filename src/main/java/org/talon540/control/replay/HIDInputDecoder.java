@@ -0,0 +1,162 @@
+package org.talon540.control.replay;
+
+import org.talon540.control.HIDStateSnapshot;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Reads the controller input recording format written by {@link HIDInputEncoder} a frame at a time. The full state of
+ * each controller is kept, along with what changed in the last frame so only those parts need to be applied.
+ */
+final class HIDInputDecoder {
+    private final DataInputStream in;
+    private final int[] ports, buttons, toggledButtons, pov, changedAxes;
+    private final boolean[] povChanged;
+    private final double[][] axes;
+
+    private long frameMicros;
+    private boolean finished;
+
+    /**
+     * Create a decoder, read the header and the time of the first frame
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream couldn't be read or isn't a controller input recording
+     */
+    HIDInputDecoder(DataInputStream in) throws IOException {
+        this.in = in;
+
+        if (in.readInt() != HIDInputEncoder.kMagic)
+            throw new IOException("File is not a controller input recording");
+        if (in.readInt() != HIDInputEncoder.kVersion)
+            throw new IOException("Unsupported controller input recording version");
+
+        int count = in.readUnsignedByte();
+        this.ports = new int[count];
+        this.buttons = new int[count];
+        this.toggledButtons = new int[count];
+        this.pov = new int[count];
+        this.povChanged = new boolean[count];
+        this.changedAxes = new int[count];
+        this.axes = new double[count][HIDStateSnapshot.kMaxAxes];
+
+        for (int i = 0; i < count; i++) {
+            ports[i] = in.readUnsignedByte();
+            pov[i] = -1;
+        }
+
+        readFrameTime();
+    }
+
+    private void readFrameTime() throws IOException {
+        try {
+            frameMicros += readVarLong(in);
+        } catch (EOFException e) {
+            finished = true;
+        }
+    }
+
+    /**
+     * Apply the next frame to the state of each controller and read the time of the frame after it
+     *
+     * @throws IOException if the stream couldn't be read
+     */
+    void readFrame() throws IOException {
+        if (finished)
+            throw new IllegalStateException("Every frame has been read");
+
+        for (int i = 0; i < ports.length; i++) {
+            int flags = in.readUnsignedByte();
+            toggledButtons[i] = 0;
+            povChanged[i] = false;
+            changedAxes[i] = 0;
+
+            if ((flags & HIDInputEncoder.kButtonsChanged) != 0) {
+                toggledButtons[i] = (int) readVarLong(in);
+                buttons[i] ^= toggledButtons[i];
+            }
+
+            if ((flags & HIDInputEncoder.kPOVChanged) != 0) {
+                pov[i] = in.readShort();
+                povChanged[i] = true;
+            }
+
+            if ((flags & HIDInputEncoder.kAxesChanged) != 0) {
+                changedAxes[i] = in.readUnsignedShort();
+
+                for (int axis = 0; axis < HIDStateSnapshot.kMaxAxes; axis++) {
+                    if ((changedAxes[i] & (1 << axis)) != 0)
+                        axes[i][axis] = in.readShort() / HIDInputEncoder.kAxisScale;
+                }
+            }
+        }
+
+        readFrameTime();
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    /**
+     * Whether every frame has been read
+     *
+     * @return if the recording has finished
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Get the time of the next frame since the start of the recording
+     *
+     * @return time of the next frame in microseconds
+     */
+    long getFrameMicros() {
+        return frameMicros;
+    }
+
+    int getControllerCount() {
+        return ports.length;
+    }
+
+    int getPort(int controller) {
+        return ports[controller];
+    }
+
+    int getButtons(int controller) {
+        return buttons[controller];
+    }
+
+    int getToggledButtons(int controller) {
+        return toggledButtons[controller];
+    }
+
+    int getPOV(int controller) {
+        return pov[controller];
+    }
+
+    boolean isPOVChanged(int controller) {
+        return povChanged[controller];
+    }
+
+    int getChangedAxes(int controller) {
+        return changedAxes[controller];
+    }
+
+    double getAxis(int controller, int axis) {
+        return axes[controller][axis];
+    }
+}
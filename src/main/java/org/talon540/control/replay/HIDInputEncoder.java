@@ -0,0 +1,166 @@
+package org.talon540.control.replay;
+
+import org.talon540.control.HIDStateSnapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes the controller input recording format read by {@link HIDInputDecoder}. The state of each controller is set
+ * every cycle, and a frame is only written when something changed. Each frame stores the time since the previous frame
+ * as a varint and, for each controller, only the parts of its state that changed: the buttons that toggled, the new
+ * POV, and each changed axis quantized to a short.
+ */
+final class HIDInputEncoder {
+    static final int kMagic = 0x54484944; // "THID"
+    static final int kVersion = 1;
+
+    static final int kButtonsChanged = 1;
+    static final int kPOVChanged = 1 << 1;
+    static final int kAxesChanged = 1 << 2;
+
+    static final double kAxisScale = Short.MAX_VALUE;
+
+    private final DataOutputStream out;
+
+    private final int[] buttons, pov, lastButtons, lastPOV;
+    private final short[][] axes, lastAxes;
+
+    private long lastFrameMicros = -1;
+
+    /**
+     * Create an encoder and write the header
+     *
+     * @param out stream to write to
+     * @param ports driver station port of each recorded controller
+     * @throws IOException if the header couldn't be written
+     */
+    HIDInputEncoder(DataOutputStream out, int[] ports) throws IOException {
+        this.out = out;
+        this.buttons = new int[ports.length];
+        this.pov = new int[ports.length];
+        this.lastButtons = new int[ports.length];
+        this.lastPOV = new int[ports.length];
+        this.axes = new short[ports.length][HIDStateSnapshot.kMaxAxes];
+        this.lastAxes = new short[ports.length][HIDStateSnapshot.kMaxAxes];
+
+        for (int i = 0; i < ports.length; i++) {
+            pov[i] = -1;
+            lastPOV[i] = -1;
+        }
+
+        out.writeInt(kMagic);
+        out.writeInt(kVersion);
+        out.writeByte(ports.length);
+        for (int port : ports) {
+            out.writeByte(port);
+        }
+    }
+
+    /**
+     * Set the current state of a controller
+     *
+     * @param controller index of the controller in the recording
+     * @param buttons bitmask of pressed buttons, where bit 0 is button 1
+     * @param pov POV angle in degrees, or -1 if not pressed
+     */
+    void setState(int controller, int buttons, int pov) {
+        this.buttons[controller] = buttons;
+        this.pov[controller] = pov;
+    }
+
+    /**
+     * Set the current value of an axis of a controller
+     *
+     * @param controller index of the controller in the recording
+     * @param axis axis index
+     * @param value axis value [-1, 1]
+     */
+    void setAxis(int controller, int axis, double value) {
+        axes[controller][axis] = (short) (value * kAxisScale);
+    }
+
+    /**
+     * Whether any controller changed since the last written frame
+     *
+     * @return if a frame would be written
+     */
+    boolean hasChanges() {
+        for (int i = 0; i < buttons.length; i++) {
+            if (getFlags(i, getChangedAxes(i)) != 0)
+                return true;
+        }
+
+        return false;
+    }
+
+    private int getChangedAxes(int controller) {
+        int changed = 0;
+        for (int axis = 0; axis < HIDStateSnapshot.kMaxAxes; axis++) {
+            if (axes[controller][axis] != lastAxes[controller][axis])
+                changed |= 1 << axis;
+        }
+
+        return changed;
+    }
+
+    private int getFlags(int controller, int changedAxes) {
+        int flags = 0;
+        if (buttons[controller] != lastButtons[controller])
+            flags |= kButtonsChanged;
+        if (pov[controller] != lastPOV[controller])
+            flags |= kPOVChanged;
+        if (changedAxes != 0)
+            flags |= kAxesChanged;
+
+        return flags;
+    }
+
+    /**
+     * Write a frame with every change since the last frame
+     *
+     * @param timeMicros time of the frame in microseconds
+     * @throws IOException if the frame couldn't be written
+     */
+    void writeFrame(long timeMicros) throws IOException {
+        writeVarLong(out, lastFrameMicros < 0 ? 0 : timeMicros - lastFrameMicros);
+        lastFrameMicros = timeMicros;
+
+        for (int i = 0; i < buttons.length; i++) {
+            int changedAxes = getChangedAxes(i);
+            int flags = getFlags(i, changedAxes);
+            out.writeByte(flags);
+
+            if ((flags & kButtonsChanged) != 0) {
+                // Store the buttons that toggled, which is usually a single bit
+                writeVarLong(out, (buttons[i] ^ lastButtons[i]) & 0xFFFFFFFFL);
+                lastButtons[i] = buttons[i];
+            }
+
+            if ((flags & kPOVChanged) != 0) {
+                out.writeShort(pov[i]);
+                lastPOV[i] = pov[i];
+            }
+
+            if ((flags & kAxesChanged) != 0) {
+                out.writeShort(changedAxes);
+
+                for (int axis = 0; axis < HIDStateSnapshot.kMaxAxes; axis++) {
+                    if ((changedAxes & (1 << axis)) == 0)
+                        continue;
+
+                    out.writeShort(axes[i][axis]);
+                    lastAxes[i][axis] = axes[i][axis];
+                }
+            }
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,110 @@
+package org.talon540.control.replay;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.RobotController;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.control.HIDStateSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records the buttons, axes and POV of controllers to a compact binary file so a match can be replayed with
+ * {@link HIDInputReplayer}. State is read from each controller's {@link HIDStateSnapshot}, and a frame is only written
+ * for cycles where something changed. Each frame stores the time since the previous frame and, for each controller,
+ * only the parts of its state that changed. The format is written by {@code HIDInputEncoder}.
+ * <p>
+ * Frames are written to a buffered stream, so recording costs a few comparisons per cycle. If the file can't be
+ * written, an error is reported to the driver station and recording stops rather than interrupting the robot.
+ */
+public class HIDInputRecorder implements AutoCloseable {
+    private final HIDStateSnapshot[] snapshots;
+    private final DataOutputStream out;
+    private final HIDInputEncoder encoder;
+
+    private boolean closed;
+
+    /**
+     * Create a recorder and write the file header
+     *
+     * @param path file to write to
+     * @param controllers controllers to record
+     * @throws IOException if the file couldn't be created
+     */
+    public HIDInputRecorder(@NotNull Path path, @NotNull GenericHID... controllers) throws IOException {
+        this.snapshots = new HIDStateSnapshot[controllers.length];
+        int[] ports = new int[controllers.length];
+
+        for (int i = 0; i < controllers.length; i++) {
+            snapshots[i] = HIDStateSnapshot.getInstance(controllers[i].getPort());
+            ports[i] = snapshots[i].getPort();
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        this.encoder = new HIDInputEncoder(out, ports);
+    }
+
+    /**
+     * Record the current state of every controller. Should be called once per loop after the scheduler has run
+     */
+    public void record() {
+        if (closed)
+            return;
+
+        for (int i = 0; i < snapshots.length; i++) {
+            HIDStateSnapshot snapshot = snapshots[i];
+            encoder.setState(
+                    i,
+                    snapshot.getButtons(),
+                    snapshot.getPOV()
+            );
+
+            for (int axis = 0; axis < HIDStateSnapshot.kMaxAxes; axis++) {
+                encoder.setAxis(
+                        i,
+                        axis,
+                        snapshot.getRawAxis(axis)
+                );
+            }
+        }
+
+        if (!encoder.hasChanges())
+            return;
+
+        try {
+            encoder.writeFrame(RobotController.getFPGATime());
+        } catch (IOException e) {
+            DriverStation.reportError("Failed to record controller input: " + e.getMessage(), false);
+            close();
+        }
+    }
+
+    /**
+     * Whether the recorder is still writing
+     *
+     * @return recording status
+     */
+    public boolean isRecording() {
+        return !closed;
+    }
+
+    /**
+     * Flush and close the file
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            DriverStation.reportError("Failed to close controller input recording: " + e.getMessage(), false);
+        }
+    }
+}
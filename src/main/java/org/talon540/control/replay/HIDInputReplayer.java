@@ -0,0 +1,123 @@
+package org.talon540.control.replay;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.GenericHIDSim;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.control.HIDStateSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plays a file written by {@link HIDInputRecorder} back through WPILib's HID simulation, so teleop code can be run
+ * headlessly with real driver input. The file is read a frame at a time, and can be stepped manually in sync with
+ * simulated time or played back against the FPGA clock. The format is read by {@code HIDInputDecoder}.
+ */
+public class HIDInputReplayer implements AutoCloseable {
+    private static final int kMaxButtons = 32;
+
+    private final DataInputStream in;
+    private final HIDInputDecoder decoder;
+    private final GenericHIDSim[] sims;
+
+    private long startMicros = -1;
+
+    /**
+     * Open a recording and set up a simulated controller for each recorded port
+     *
+     * @param path file to read from
+     * @throws IOException if the file couldn't be read or isn't a controller input recording
+     */
+    public HIDInputReplayer(@NotNull Path path) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        this.decoder = new HIDInputDecoder(in);
+        this.sims = new GenericHIDSim[decoder.getControllerCount()];
+
+        for (int i = 0; i < sims.length; i++) {
+            sims[i] = new GenericHIDSim(decoder.getPort(i));
+            sims[i].setButtonCount(kMaxButtons);
+            sims[i].setAxisCount(HIDStateSnapshot.kMaxAxes);
+            sims[i].setPOVCount(1);
+            sims[i].setPOV(-1);
+            sims[i].notifyNewData();
+        }
+    }
+
+    /**
+     * Apply every frame up to and including a time in the recording. Used to step through a recording in sync with
+     * simulated time
+     *
+     * @param timeSeconds time since the start of the recording in seconds
+     * @return number of frames applied
+     * @throws IOException if the file couldn't be read
+     */
+    public int replayUntil(double timeSeconds) throws IOException {
+        int applied = 0;
+
+        while (!decoder.isFinished() && decoder.getFrameMicros() <= timeSeconds * 1e6) {
+            decoder.readFrame();
+            applyFrame();
+            applied++;
+        }
+
+        if (applied > 0) {
+            for (GenericHIDSim sim : sims) {
+                sim.notifyNewData();
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * Apply the frames that are due according to the FPGA clock. The first call starts playback. Should be called once
+     * per loop before the scheduler runs
+     *
+     * @return number of frames applied
+     * @throws IOException if the file couldn't be read
+     */
+    public int update() throws IOException {
+        if (startMicros < 0)
+            startMicros = RobotController.getFPGATime();
+
+        return replayUntil((RobotController.getFPGATime() - startMicros) / 1e6);
+    }
+
+    private void applyFrame() {
+        for (int i = 0; i < sims.length; i++) {
+            GenericHIDSim sim = sims[i];
+
+            int toggled = decoder.getToggledButtons(i);
+            for (int button = 0; button < kMaxButtons; button++) {
+                if ((toggled & (1 << button)) != 0)
+                    sim.setRawButton(button + 1, (decoder.getButtons(i) & (1 << button)) != 0);
+            }
+
+            if (decoder.isPOVChanged(i))
+                sim.setPOV(decoder.getPOV(i));
+
+            int changedAxes = decoder.getChangedAxes(i);
+            for (int axis = 0; axis < HIDStateSnapshot.kMaxAxes; axis++) {
+                if ((changedAxes & (1 << axis)) != 0)
+                    sim.setRawAxis(axis, decoder.getAxis(i, axis));
+            }
+        }
+    }
+
+    /**
+     * Whether every frame has been applied
+     *
+     * @return if the replay has finished
+     */
+    public boolean isFinished() {
+        return decoder.isFinished();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
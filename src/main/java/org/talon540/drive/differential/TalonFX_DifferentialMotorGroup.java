@@ -1,12 +1,16 @@
 package org.talon540.drive.differential;
 
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.TalonFXSensorCollection;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
+import org.talon540.sensors.TalonFXSensorSnapshot;
 
 
 public class TalonFX_DifferentialMotorGroup extends MotorControllerGroup {
+    private final WPI_TalonFX leader;
     private final TalonFXSensorCollection sensorGroup;
+    private final TalonFXSensorSnapshot sensorSnapshot;
 
     public TalonFX_DifferentialMotorGroup(WPI_TalonFX leader, WPI_TalonFX follower) {
         super(
@@ -14,13 +18,40 @@ public class TalonFX_DifferentialMotorGroup extends MotorControllerGroup {
                 follower
         );
 
+        this.leader = leader;
         sensorGroup = leader.getSensorCollection();
+        sensorSnapshot = new TalonFXSensorSnapshot(
+                leader,
+                follower
+        );
+    }
+
+    /**
+     * Set the status frame periods of both motors to the rates the snapshot reads at, see
+     * {@link TalonFXSensorSnapshot#configureStatusFrames()}. The leader's integrated sensor frame is also sent every
+     * {@link TalonFXSensorSnapshot#kFeedbackPeriodMs}, since {@link #getRawPosition()} and {@link #getRawVelocity()}
+     * read it. Status frames are left at their defaults unless this is called
+     */
+    public void configureStatusFrames() {
+        sensorSnapshot.configureStatusFrames();
+        leader.setStatusFramePeriod(
+                StatusFrameEnhanced.Status_21_FeedbackIntegrated,
+                TalonFXSensorSnapshot.kFeedbackPeriodMs,
+                0
+        );
     }
 
     public TalonFXSensorCollection getSensorGroup() {
         return sensorGroup;
     }
 
+    /**
+     * Get the snapshot of every motor in the group, where the leader is index 0 and the follower is index 1
+     */
+    public TalonFXSensorSnapshot getSensorSnapshot() {
+        return sensorSnapshot;
+    }
+
     /**
      * Return the velocity of the motor group Return the TalonFX integrated sensor velocity in
      * {@code CTRE ticks per 100ms}
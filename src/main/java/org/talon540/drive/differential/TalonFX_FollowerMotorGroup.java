@@ -0,0 +1,163 @@
+package org.talon540.drive.differential;
+
+import com.ctre.phoenix.motorcontrol.InvertType;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.TalonFXSensorCollection;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.sensors.TalonFXSensorSnapshot;
+
+/**
+ * A group of TalonFX motors where only the leader is sent control frames. Followers are put into CTRE follower mode and
+ * mirror the leader's output on their own, which halves the control traffic on the CAN bus compared to a
+ * {@link edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup} of two motors.
+ * <p>
+ * Inverting the group inverts the leader, and followers follow or oppose the leader's direction. Since followers only
+ * mirror the leader, the group's snapshot only reads the leader's position and velocity, and
+ * {@link #configureStatusFrames()} slows the followers' feedback frames to
+ * {@link TalonFXSensorSnapshot#kUnusedPeriodMs}.
+ */
+public class TalonFX_FollowerMotorGroup implements MotorController, Sendable {
+    private final WPI_TalonFX leader;
+    private final WPI_TalonFX[] followers;
+    private final TalonFXSensorCollection leaderSensors;
+    private final TalonFXSensorSnapshot sensorSnapshot;
+
+    /**
+     * Create a group where every follower spins in the same direction as the leader
+     *
+     * @param leader motor that receives control frames
+     * @param followers motors that follow the leader
+     */
+    public TalonFX_FollowerMotorGroup(@NotNull WPI_TalonFX leader, @NotNull WPI_TalonFX... followers) {
+        this.leader = leader;
+        this.followers = followers;
+        this.leaderSensors = leader.getSensorCollection();
+
+        WPI_TalonFX[] motors = new WPI_TalonFX[followers.length + 1];
+        motors[0] = leader;
+
+        for (int i = 0; i < followers.length; i++) {
+            followers[i].follow(leader);
+            followers[i].setInverted(InvertType.FollowMaster);
+            motors[i + 1] = followers[i];
+        }
+
+        this.sensorSnapshot = new TalonFXSensorSnapshot(
+                1,
+                motors
+        );
+    }
+
+    /**
+     * Set the status frame periods of every motor in the group, see
+     * {@link TalonFXSensorSnapshot#configureStatusFrames()}. Each motor is sent its final periods once: the leader's
+     * feedback and integrated sensor frames are sent every {@link TalonFXSensorSnapshot#kFeedbackPeriodMs}, and the
+     * followers' feedback frames are slowed to {@link TalonFXSensorSnapshot#kUnusedPeriodMs}. Status frames are left
+     * at their defaults unless this is called
+     */
+    public void configureStatusFrames() {
+        sensorSnapshot.configureStatusFrames();
+        leader.setStatusFramePeriod(
+                StatusFrameEnhanced.Status_21_FeedbackIntegrated,
+                TalonFXSensorSnapshot.kFeedbackPeriodMs,
+                0
+        );
+    }
+
+    /**
+     * Set whether a follower spins opposite to the leader
+     *
+     * @param follower follower in the group
+     * @param opposeLeader if the follower should spin opposite to the leader
+     */
+    public void setFollowerOpposed(@NotNull WPI_TalonFX follower, boolean opposeLeader) {
+        for (WPI_TalonFX motor : followers) {
+            if (motor == follower) {
+                follower.setInverted(opposeLeader ? InvertType.OpposeMaster : InvertType.FollowMaster);
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("Motor is not a follower in this group");
+    }
+
+    /**
+     * Get the motor that receives control frames
+     */
+    public WPI_TalonFX getLeader() {
+        return leader;
+    }
+
+    /**
+     * Get the snapshot of every motor in the group, where the leader is index 0 and the followers follow in order.
+     * Only the leader's position and velocity are read, so they are {@link Double#NaN} for the followers
+     */
+    public TalonFXSensorSnapshot getSensorSnapshot() {
+        return sensorSnapshot;
+    }
+
+    /**
+     * Return the TalonFX integrated sensor velocity of the leader in {@code CTRE ticks per 100ms}
+     */
+    public double getRawVelocity() {
+        return leaderSensors.getIntegratedSensorVelocity();
+    }
+
+    /**
+     * Return the TalonFX integrated sensor position of the leader in {@code CTRE ticks}
+     */
+    public double getRawPosition() {
+        return leaderSensors.getIntegratedSensorPosition();
+    }
+
+    @Override
+    public void set(double speed) {
+        leader.set(speed);
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        leader.setVoltage(outputVolts);
+    }
+
+    @Override
+    public double get() {
+        return leader.get();
+    }
+
+    @Override
+    public void setInverted(boolean isInverted) {
+        leader.setInverted(isInverted);
+    }
+
+    @Override
+    public boolean getInverted() {
+        return leader.getInverted();
+    }
+
+    @Override
+    public void disable() {
+        leader.disable();
+    }
+
+    @Override
+    public void stopMotor() {
+        leader.stopMotor();
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Motor Controller");
+        builder.setActuator(true);
+        builder.setSafeState(this::stopMotor);
+        builder.addDoubleProperty(
+                "Value",
+                this::get,
+                this::set
+        );
+    }
+}
@@ -0,0 +1,301 @@
+package org.talon540.hardware;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+import edu.wpi.first.wpilibj.DriverStation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps track of the CAN devices on each bus and the status frames they send, so the load on each bus can be estimated
+ * at startup. Devices are grouped by the {@link CANDeviceConfig#controller} they are on, and each id can only be
+ * registered once per bus.
+ * <p>
+ * Utilization is estimated from the number of frames sent per second, assuming each frame is an extended frame with a
+ * full payload on a 1 Mbit/s bus. Buses over budget can be reported with {@link #check(boolean)}, and the non-critical
+ * frames on them can be slowed down with {@link #balance()}.
+ */
+public class CANDeviceRegistry {
+    /**
+     * Approximate number of bits in an extended CAN frame with an 8 byte payload
+     */
+    public static final int kBitsPerFrame = 131;
+    /**
+     * Bit rate of the CAN bus in bits per second
+     */
+    public static final double kBitRate = 1_000_000;
+
+    /**
+     * Period used for a TalonFX status frame whose period can't be read, other than the general, feedback and current
+     * frames. Most of these frames are sent slower than this by default, so the bus load isn't under-estimated
+     */
+    public static final int kTalonFXFallbackPeriodMs = 160;
+
+    private static final StatusFrameEnhanced[] kTalonFXFrames = {
+            StatusFrameEnhanced.Status_1_General,
+            StatusFrameEnhanced.Status_2_Feedback0,
+            StatusFrameEnhanced.Status_3_Quadrature,
+            StatusFrameEnhanced.Status_4_AinTempVbat,
+            StatusFrameEnhanced.Status_6_Misc,
+            StatusFrameEnhanced.Status_7_CommStatus,
+            StatusFrameEnhanced.Status_8_PulseWidth,
+            StatusFrameEnhanced.Status_9_MotProfBuffer,
+            StatusFrameEnhanced.Status_10_Targets,
+            StatusFrameEnhanced.Status_12_Feedback1,
+            StatusFrameEnhanced.Status_13_Base_PIDF0,
+            StatusFrameEnhanced.Status_14_Turn_PIDF1,
+            StatusFrameEnhanced.Status_15_FirmareApiStatus,
+            StatusFrameEnhanced.Status_17_Targets1,
+            StatusFrameEnhanced.Status_21_FeedbackIntegrated,
+            StatusFrameEnhanced.Status_Brushless_Current
+    };
+
+    private final double maxUtilization;
+    private final Map<String, Map<Integer, CANStatusFrame[]>> buses = new LinkedHashMap<>();
+
+    /**
+     * Create a registry
+     *
+     * @param maxUtilization fraction of each bus that status frames may use [0, 1]
+     */
+    public CANDeviceRegistry(double maxUtilization) {
+        if (!(0 < maxUtilization && maxUtilization <= 1))
+            throw new IllegalArgumentException("Max utilization must be within (0, 1]");
+
+        this.maxUtilization = maxUtilization;
+    }
+
+    /**
+     * Create a registry that allows status frames to use 70% of each bus, leaving room for control frames
+     */
+    public CANDeviceRegistry() {
+        this(0.7);
+    }
+
+    /**
+     * Register a device and the status frames it sends
+     *
+     * @param config id and bus of the device
+     * @param frames status frames sent by the device
+     * @throws IllegalArgumentException if a device with the same id is already registered on the bus
+     */
+    public void register(@NotNull CANDeviceConfig config, @NotNull CANStatusFrame... frames) {
+        Map<Integer, CANStatusFrame[]> devices = buses.computeIfAbsent(config.controller, bus -> new LinkedHashMap<>());
+        if (devices.containsKey(config.id)) {
+            throw new IllegalArgumentException(String.format(
+                    "Device %d is already registered on CAN bus \"%s\"",
+                    config.id,
+                    config.controller.isEmpty() ? "rio" : config.controller
+            ));
+        }
+
+        devices.put(config.id, frames);
+    }
+
+    /**
+     * Register a TalonFX with every status frame it sends. The period of each frame is read from the motor, so periods
+     * already changed, such as by {@link org.talon540.sensors.TalonFXSensorSnapshot#configureStatusFrames()}, are
+     * counted at their new rates. See {@link #registerTalonFX(CANDeviceConfig, ToIntFunction, ObjIntConsumer)}
+     *
+     * @param config id and bus of the motor
+     * @param motor the motor
+     * @param timeoutMs time to wait for the motor to report each period and confirm period changes
+     * @throws IllegalArgumentException if the timeout isn't greater than 0, or a device with the same id is already
+     * registered on the bus
+     */
+    public void registerTalonFX(@NotNull CANDeviceConfig config, @NotNull WPI_TalonFX motor, int timeoutMs) {
+        // Without a timeout the motor's periods aren't waited for and read as 0
+        if (timeoutMs <= 0)
+            throw new IllegalArgumentException("Timeout must be greater than 0");
+
+        registerTalonFX(
+                config,
+                frame -> motor.getStatusFramePeriod(frame, timeoutMs),
+                (frame, periodMs) -> motor.setStatusFramePeriod(frame, periodMs, timeoutMs)
+        );
+    }
+
+    /**
+     * Register a TalonFX with every status frame it sends, reading and setting periods through callbacks. A period
+     * that isn't within 1-{@link CANStatusFrame#kMaxPeriodMs}ms is replaced with the motor's default for the general,
+     * feedback and current frames, and {@link #kTalonFXFallbackPeriodMs} for the rest. The general, feedback and
+     * integrated sensor frames are critical, and the other frames can be slowed down
+     *
+     * @param config id and bus of the motor
+     * @param periodSource reads the period of a frame from the motor in milliseconds
+     * @param periodApplier sets the period of a frame on the motor in milliseconds
+     * @throws IllegalArgumentException if a device with the same id is already registered on the bus
+     */
+    public void registerTalonFX(
+            @NotNull CANDeviceConfig config,
+            @NotNull ToIntFunction<StatusFrameEnhanced> periodSource,
+            @NotNull ObjIntConsumer<StatusFrameEnhanced> periodApplier
+    ) {
+        CANStatusFrame[] frames = new CANStatusFrame[kTalonFXFrames.length];
+
+        for (int i = 0; i < frames.length; i++) {
+            StatusFrameEnhanced frame = kTalonFXFrames[i];
+            int periodMs = periodSource.applyAsInt(frame);
+            if (!(0 < periodMs && periodMs <= CANStatusFrame.kMaxPeriodMs))
+                periodMs = getTalonFXDefaultPeriodMs(frame);
+
+            if (frame == StatusFrameEnhanced.Status_1_General
+                    || frame == StatusFrameEnhanced.Status_2_Feedback0
+                    || frame == StatusFrameEnhanced.Status_21_FeedbackIntegrated) {
+                frames[i] = new CANStatusFrame(frame.name(), periodMs);
+            } else {
+                frames[i] = new CANStatusFrame(
+                        frame.name(),
+                        periodMs,
+                        false,
+                        period -> periodApplier.accept(frame, period)
+                );
+            }
+        }
+
+        register(config, frames);
+    }
+
+    private static int getTalonFXDefaultPeriodMs(StatusFrameEnhanced frame) {
+        switch (frame) {
+            case Status_1_General:
+                return 10;
+            case Status_2_Feedback0:
+                return 20;
+            case Status_Brushless_Current:
+                return 50;
+            default:
+                return kTalonFXFallbackPeriodMs;
+        }
+    }
+
+    /**
+     * Get the names of every bus with a registered device. The RIO's bus is an empty string
+     *
+     * @return unmodifiable set of bus names
+     */
+    public Set<String> getBuses() {
+        return Collections.unmodifiableSet(buses.keySet());
+    }
+
+    /**
+     * Get the number of devices registered on a bus
+     *
+     * @param bus name of the bus
+     * @return device count
+     */
+    public int getDeviceCount(@NotNull String bus) {
+        Map<Integer, CANStatusFrame[]> devices = buses.get(bus);
+        return devices == null ? 0 : devices.size();
+    }
+
+    /**
+     * Get the estimated fraction of a bus used by status frames
+     *
+     * @param bus name of the bus
+     * @return estimated utilization [0, 1+]
+     */
+    public double getUtilization(@NotNull String bus) {
+        Map<Integer, CANStatusFrame[]> devices = buses.get(bus);
+        if (devices == null)
+            return 0;
+
+        double framesPerSecond = 0;
+        for (CANStatusFrame[] frames : devices.values()) {
+            for (CANStatusFrame frame : frames) {
+                framesPerSecond += frame.getFrequency();
+            }
+        }
+
+        return framesPerSecond * kBitsPerFrame / kBitRate;
+    }
+
+    /**
+     * Whether a bus is within the utilization budget
+     *
+     * @param bus name of the bus
+     * @return if the bus is within budget
+     */
+    public boolean isWithinBudget(@NotNull String bus) {
+        return getUtilization(bus) <= maxUtilization;
+    }
+
+    /**
+     * Check every bus against the utilization budget
+     *
+     * @param failOnOverBudget throw an exception instead of reporting a warning when a bus is over budget
+     * @return if every bus is within budget
+     * @throws IllegalStateException if a bus is over budget and {@code failOnOverBudget} is set
+     */
+    public boolean check(boolean failOnOverBudget) {
+        boolean withinBudget = true;
+
+        for (String bus : buses.keySet()) {
+            double utilization = getUtilization(bus);
+            if (utilization <= maxUtilization)
+                continue;
+
+            withinBudget = false;
+            String message = String.format(
+                    "CAN bus \"%s\" is over budget: %d devices using an estimated %.0f%% (budget %.0f%%)",
+                    bus.isEmpty() ? "rio" : bus,
+                    getDeviceCount(bus),
+                    utilization * 100,
+                    maxUtilization * 100
+            );
+
+            if (failOnOverBudget)
+                throw new IllegalStateException(message);
+            DriverStation.reportWarning(message, false);
+        }
+
+        return withinBudget;
+    }
+
+    /**
+     * Slow down non-critical status frames on every bus that is over budget until it is within budget. The fastest
+     * non-critical frame on a bus is doubled in period, up to {@link CANStatusFrame#kMaxPeriodMs}, until the bus is
+     * within budget or no frame can be slowed further
+     *
+     * @return if every bus is within budget
+     */
+    public boolean balance() {
+        boolean withinBudget = true;
+
+        for (String bus : buses.keySet()) {
+            while (!isWithinBudget(bus)) {
+                CANStatusFrame fastest = findFastestAdjustableFrame(bus);
+                if (fastest == null) {
+                    withinBudget = false;
+                    break;
+                }
+
+                fastest.setPeriodMs(Math.min(fastest.getPeriodMs() * 2, CANStatusFrame.kMaxPeriodMs));
+            }
+        }
+
+        return withinBudget;
+    }
+
+    private CANStatusFrame findFastestAdjustableFrame(String bus) {
+        CANStatusFrame fastest = null;
+
+        for (CANStatusFrame[] frames : buses.get(bus).values()) {
+            for (CANStatusFrame frame : frames) {
+                if (frame.isCritical() || frame.getPeriodMs() >= CANStatusFrame.kMaxPeriodMs)
+                    continue;
+
+                if (fastest == null || frame.getPeriodMs() < fastest.getPeriodMs())
+                    fastest = frame;
+            }
+        }
+
+        return fastest;
+    }
+}
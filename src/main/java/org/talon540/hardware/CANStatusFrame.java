@@ -0,0 +1,97 @@
+package org.talon540.hardware;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A periodic status frame sent by a CAN device, declared to a {@link CANDeviceRegistry} so the load it puts on the bus
+ * can be estimated. Frames that aren't critical can have their period raised by the registry when a bus is over budget,
+ * in which case the new period is sent to the device through the frame's applier.
+ */
+public class CANStatusFrame {
+    /**
+     * Longest period a status frame can be set to in milliseconds
+     */
+    public static final int kMaxPeriodMs = 255;
+
+    private final String name;
+    private final boolean critical;
+    private final IntConsumer applier;
+
+    private int periodMs;
+
+    /**
+     * Declare a status frame
+     *
+     * @param name name of the frame, used when reporting
+     * @param periodMs period the frame is sent at in milliseconds
+     * @param critical if the frame's period must not be changed by the registry
+     * @param applier callback that sets the frame's period on the device in milliseconds
+     */
+    public CANStatusFrame(@NotNull String name, int periodMs, boolean critical, @NotNull IntConsumer applier) {
+        if (!(0 < periodMs && periodMs <= kMaxPeriodMs))
+            throw new IllegalArgumentException("Status frame period must be within 1-" + kMaxPeriodMs + "ms");
+
+        this.name = name;
+        this.periodMs = periodMs;
+        this.critical = critical;
+        this.applier = applier;
+    }
+
+    /**
+     * Declare a critical status frame whose period is managed outside of the registry
+     *
+     * @param name name of the frame, used when reporting
+     * @param periodMs period the frame is sent at in milliseconds
+     */
+    public CANStatusFrame(@NotNull String name, int periodMs) {
+        this(
+                name,
+                periodMs,
+                true,
+                period -> {}
+        );
+    }
+
+    /**
+     * Get the name of the frame
+     *
+     * @return frame name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the period the frame is sent at
+     *
+     * @return period in milliseconds
+     */
+    public int getPeriodMs() {
+        return periodMs;
+    }
+
+    /**
+     * Whether the registry is prevented from changing the frame's period
+     *
+     * @return if the frame is critical
+     */
+    public boolean isCritical() {
+        return critical;
+    }
+
+    /**
+     * Get the number of times per second the frame is sent
+     *
+     * @return frames per second
+     */
+    public double getFrequency() {
+        return 1000.0 / periodMs;
+    }
+
+    void setPeriodMs(int periodMs) {
+        this.periodMs = periodMs;
+        applier.accept(periodMs);
+    }
+}
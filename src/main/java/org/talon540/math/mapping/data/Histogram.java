@@ -0,0 +1,141 @@
+package org.talon540.math.mapping.data;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import org.talon540.telemetry.RateLimitedSupplier;
+
+/**
+ * A fixed memory histogram of values in the range [0, max). Values are counted into evenly sized bins so percentiles can
+ * be estimated without storing every value. Values at or above the max are counted in the last bin, and the largest
+ * value seen is tracked exactly.
+ */
+public class Histogram implements Sendable {
+    private final long[] bins;
+    private final double binWidth;
+
+    private long count;
+    private double sum;
+    private double max;
+
+    /**
+     * Create a histogram
+     *
+     * @param maxValue upper bound of the range tracked by the bins
+     * @param binCount number of bins to split the range into
+     */
+    public Histogram(double maxValue, int binCount) {
+        if (maxValue <= 0)
+            throw new IllegalArgumentException("Max value must be greater than 0");
+        if (binCount <= 0)
+            throw new IllegalArgumentException("Bin count must be greater than 0");
+
+        this.bins = new long[binCount];
+        this.binWidth = maxValue / binCount;
+    }
+
+    /**
+     * Add datapoint to the histogram. Negative values are counted as 0
+     *
+     * @param val value to add
+     */
+    public void addNode(double val) {
+        val = Math.max(val, 0);
+
+        int bin = (int) (val / binWidth);
+        bins[Math.min(bin, bins.length - 1)]++;
+
+        if (count == 0 || val > max)
+            max = val;
+        count++;
+        sum += val;
+    }
+
+    /**
+     * Get the estimated value below which a percentage of the datapoints fall. Returns 0 if the histogram is empty
+     *
+     * @param percentile percentile to find [0, 1]
+     * @return upper edge of the bin containing the percentile, capped at the max value seen
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile * count);
+        long cumulative = 0;
+
+        for (int i = 0; i < bins.length; i++) {
+            cumulative += bins[i];
+            if (cumulative >= rank)
+                return Math.min((i + 1) * binWidth, max);
+        }
+
+        return max;
+    }
+
+    /**
+     * Get the largest datapoint added to the histogram
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get average of the histogram
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Get the number of data-points in the histogram
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Reset the histogram
+     */
+    public void clear() {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        // Computed once per telemetry period and shared, rather than scanning the bins once per property
+        RateLimitedSupplier<double[]> statistics = new RateLimitedSupplier<>(() -> new double[]{
+                getCount(), getPercentile(0.5), getPercentile(0.95), getPercentile(0.99), getMax()
+        });
+
+        builder.addDoubleProperty(
+                "Node Count",
+                () -> statistics.get()[0],
+                null
+        );
+        builder.addDoubleProperty(
+                "p50",
+                () -> statistics.get()[1],
+                null
+        );
+        builder.addDoubleProperty(
+                "p95",
+                () -> statistics.get()[2],
+                null
+        );
+        builder.addDoubleProperty(
+                "p99",
+                () -> statistics.get()[3],
+                null
+        );
+        builder.addDoubleProperty(
+                "Max",
+                () -> statistics.get()[4],
+                null
+        );
+    }
+}
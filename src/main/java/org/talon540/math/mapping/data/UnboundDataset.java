@@ -2,6 +2,7 @@ package org.talon540.math.mapping.data;
 
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
+import org.talon540.telemetry.RateLimitedSupplier;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -76,24 +77,30 @@ public class UnboundDataset implements Sendable {
 
     @Override
     public void initSendable(SendableBuilder builder) {
+        // Computed once per telemetry period and shared, rather than walking the dataset once per property
+        RateLimitedSupplier<double[]> statistics = new RateLimitedSupplier<>(() -> {
+            double variance = getVariance();
+            return new double[]{getDatasetSize(), getAverage(), variance, Math.sqrt(variance)};
+        });
+
         builder.addDoubleProperty(
                 "Node Count",
-                this::getDatasetSize,
+                () -> statistics.get()[0],
                 null
         );
         builder.addDoubleProperty(
                 "Average",
-                this::getAverage,
+                () -> statistics.get()[1],
                 null
         );
         builder.addDoubleProperty(
                 "Variance",
-                this::getVariance,
+                () -> statistics.get()[2],
                 null
         );
         builder.addDoubleProperty(
                 "Standard Deviance",
-                this::getStandardDeviation,
+                () -> statistics.get()[3],
                 null
         );
     }
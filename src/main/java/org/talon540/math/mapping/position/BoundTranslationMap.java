@@ -0,0 +1,165 @@
+package org.talon540.math.mapping.position;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fixed capacity, time-indexed map of positions on the field without a rotation, such as the positions of a target.
+ * Positions are stored as primitives in a ring buffer, so adding a position doesn't allocate and the oldest position is
+ * overwritten once the map is full. Timestamps are expected to increase; adding a position older than the latest one
+ * clears the map first.
+ */
+public class BoundTranslationMap {
+    private final double[] timestamps, xs, ys;
+
+    private int start, size;
+
+    /**
+     * Create a translation map with a max number of entries
+     *
+     * @param mapSize max number of entries in the map
+     */
+    public BoundTranslationMap(int mapSize) {
+        if (mapSize <= 0)
+            throw new IllegalArgumentException("Map size must be greater than 0");
+
+        this.timestamps = new double[mapSize];
+        this.xs = new double[mapSize];
+        this.ys = new double[mapSize];
+    }
+
+    private int index(int i) {
+        return (start + i) % timestamps.length;
+    }
+
+    /**
+     * Add a position to the map
+     *
+     * @param x x position in meters
+     * @param y y position in meters
+     * @param timestamp timestamp key
+     */
+    public void addPositionToMap(double x, double y, double timestamp) {
+        if (size > 0 && timestamp < timestamps[index(size - 1)])
+            clear();
+
+        int i;
+        if (size < timestamps.length) {
+            i = index(size++);
+        } else {
+            i = start;
+            start = index(1);
+        }
+
+        timestamps[i] = timestamp;
+        xs[i] = x;
+        ys[i] = y;
+    }
+
+    /**
+     * Remove every position from the map
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Get the number of positions in the map
+     *
+     * @return number of positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the max number of positions the map can hold
+     *
+     * @return map capacity
+     */
+    public int getCapacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Get the timestamp of the last entered position. Returns {@link Double#NaN} if the map is empty
+     *
+     * @return latest timestamp
+     */
+    public double getLatestTimestamp() {
+        return size == 0 ? Double.NaN : timestamps[index(size - 1)];
+    }
+
+    /**
+     * Get the last entered position in the map. Returns null if the map is empty
+     *
+     * @return latest position
+     */
+    public Translation2d getLatestPosition() {
+        if (size == 0)
+            return null;
+
+        int i = index(size - 1);
+        return new Translation2d(
+                xs[i],
+                ys[i]
+        );
+    }
+
+    /**
+     * Get the position at a specific time without allocating. If the time is between two positions, the position is
+     * interpolated between them. Times outside the map are clamped to the first or last position
+     *
+     * @param timestamp timestamp to reference
+     * @param out array of at least length 2 to write the x and y position to
+     * @return whether a position was written, false if the map is empty
+     */
+    public boolean getPositionFromTimestamp(double timestamp, @NotNull double[] out) {
+        if (size == 0)
+            return false;
+
+        // Find the first position after the timestamp
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[index(mid)] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (low == 0 || low == size) {
+            int i = index(low == 0 ? 0 : size - 1);
+            out[0] = xs[i];
+            out[1] = ys[i];
+            return true;
+        }
+
+        int floor = index(low - 1), ceiling = index(low);
+        double t = (timestamp - timestamps[floor]) / (timestamps[ceiling] - timestamps[floor]);
+
+        out[0] = xs[floor] + (xs[ceiling] - xs[floor]) * t;
+        out[1] = ys[floor] + (ys[ceiling] - ys[floor]) * t;
+        return true;
+    }
+
+    /**
+     * Get the position at a specific time. If the time is between two positions, the position is interpolated between
+     * them. Returns null if the map is empty
+     *
+     * @param timestamp timestamp to reference
+     * @return position at that time
+     */
+    public Translation2d getPositionFromTimestamp(double timestamp) {
+        double[] position = new double[2];
+        if (!getPositionFromTimestamp(timestamp, position))
+            return null;
+
+        return new Translation2d(
+                position[0],
+                position[1]
+        );
+    }
+}
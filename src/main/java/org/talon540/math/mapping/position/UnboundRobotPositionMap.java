@@ -3,6 +3,7 @@ package org.talon540.math.mapping.position;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
+import org.talon540.telemetry.RateLimitedSupplier;
 
 import java.util.TreeMap;
 
@@ -72,7 +73,7 @@ public class UnboundRobotPositionMap implements Sendable {
         );
         builder.addStringProperty(
                 "cPosition",
-                () -> this.map.isEmpty() ? "Empty Map" : getLatestPosition().toString(),
+                new RateLimitedSupplier<>(() -> this.map.isEmpty() ? "Empty Map" : getLatestPosition().toString()),
                 null
         );
         builder.addDoubleProperty(
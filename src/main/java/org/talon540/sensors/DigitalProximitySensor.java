@@ -16,6 +16,15 @@ public class DigitalProximitySensor extends Button {
         return type;
     }
 
+    /**
+     * Get the digital input the sensor is wired to, used to watch it with interrupts
+     *
+     * @return digital input of the sensor
+     */
+    public DigitalInput getDigitalInput() {
+        return sensor;
+    }
+
     @Override
     public boolean get() {
         switch (this.type) {
@@ -0,0 +1,291 @@
+package org.talon540.sensors;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.control.LoopClock;
+import org.talon540.hardware.CANDeviceConfig;
+import org.talon540.hardware.CANDeviceRegistry;
+
+/**
+ * Position, velocity, current and temperature of a set of TalonFX motors, read once per loop cycle so every consumer
+ * shares the same values instead of making its own JNI calls. The first read in a new {@link LoopClock} cycle refreshes
+ * the snapshot. Position and velocity are read every cycle, while current and temperature are read at the slower rate
+ * their status frames are configured to send at by {@link #configureStatusFrames()}.
+ * <p>
+ * Position and velocity are read from the selected feedback sensor in {@code CTRE ticks} and
+ * {@code CTRE ticks per 100ms}, since it is sent in the fast feedback frame. Unlike the integrated sensor values in
+ * {@link com.ctre.phoenix.motorcontrol.TalonFXSensorCollection}, they follow the motor's inversion, sensor zeroing and
+ * remote feedback configuration.
+ * <p>
+ * A snapshot can skip the feedback of some motors, such as followers that only mirror another motor. Only the first
+ * feedback motors have their position and velocity read, and the rest are only read for current and temperature.
+ */
+public class TalonFXSensorSnapshot {
+    /**
+     * Period of the feedback status frame, matching the default robot loop
+     */
+    public static final int kFeedbackPeriodMs = 20;
+    /**
+     * Period of the current status frame
+     */
+    public static final int kCurrentPeriodMs = 100;
+    /**
+     * Period of the temperature status frame
+     */
+    public static final int kTemperaturePeriodMs = 250;
+    /**
+     * Period of the status frames the snapshot doesn't read
+     */
+    public static final int kUnusedPeriodMs = 255;
+
+    private static final StatusFrameEnhanced[] kUnusedFrames = {
+            StatusFrameEnhanced.Status_3_Quadrature,
+            StatusFrameEnhanced.Status_8_PulseWidth
+    };
+
+    private final WPI_TalonFX[] motors;
+    private final int feedbackMotors;
+    private final double[] positions, velocities, statorCurrents, supplyCurrents, temperatures;
+
+    private long refreshedCycle;
+    private double timestamp = Double.NaN;
+    private double lastCurrentTimestamp = Double.NEGATIVE_INFINITY;
+    private double lastTemperatureTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a snapshot of a set of motors where only the first motors have their position and velocity read
+     *
+     * @param feedbackMotors number of motors, from the start of {@code motors}, to read the position and velocity of
+     * @param motors motors to read
+     */
+    public TalonFXSensorSnapshot(int feedbackMotors, @NotNull WPI_TalonFX... motors) {
+        if (motors.length == 0)
+            throw new IllegalArgumentException("Snapshot must contain at least one motor");
+        if (!(0 <= feedbackMotors && feedbackMotors <= motors.length))
+            throw new IllegalArgumentException("Feedback motor count must be within 0-" + motors.length);
+
+        this.motors = motors;
+        this.feedbackMotors = feedbackMotors;
+        this.positions = new double[motors.length];
+        this.velocities = new double[motors.length];
+        this.statorCurrents = new double[motors.length];
+        this.supplyCurrents = new double[motors.length];
+        this.temperatures = new double[motors.length];
+
+        for (int i = feedbackMotors; i < motors.length; i++) {
+            positions[i] = Double.NaN;
+            velocities[i] = Double.NaN;
+        }
+
+        refresh();
+    }
+
+    /**
+     * Create a snapshot of a set of motors
+     *
+     * @param motors motors to read
+     */
+    public TalonFXSensorSnapshot(@NotNull WPI_TalonFX... motors) {
+        this(
+                motors.length,
+                motors
+        );
+    }
+
+    /**
+     * Set the status frame periods of every motor to the rates the snapshot reads at, and slow the quadrature and pulse
+     * width frames, which a TalonFX has no sensor for, to {@link #kUnusedPeriodMs}. The feedback frame of motors whose
+     * feedback isn't read is slowed to {@link #kUnusedPeriodMs} as well. The general, integrated sensor and closed loop
+     * frames are left alone, so closed loop and Motion Magic getters keep their rates. Nothing is changed until this is
+     * called. Each period is sent once, without waiting for the motors to confirm it
+     */
+    public void configureStatusFrames() {
+        for (int i = 0; i < motors.length; i++) {
+            WPI_TalonFX motor = motors[i];
+            motor.setStatusFramePeriod(
+                    StatusFrameEnhanced.Status_2_Feedback0,
+                    i < feedbackMotors ? kFeedbackPeriodMs : kUnusedPeriodMs,
+                    0
+            );
+            motor.setStatusFramePeriod(StatusFrameEnhanced.Status_Brushless_Current, kCurrentPeriodMs, 0);
+            motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, kTemperaturePeriodMs, 0);
+
+            for (StatusFrameEnhanced frame : kUnusedFrames) {
+                motor.setStatusFramePeriod(frame, kUnusedPeriodMs, 0);
+            }
+        }
+    }
+
+    /**
+     * Register every motor in the snapshot with a registry. Call this after {@link #configureStatusFrames()}, so each
+     * motor's frames are counted at the periods it reports. See
+     * {@link CANDeviceRegistry#registerTalonFX(CANDeviceConfig, WPI_TalonFX, int)}
+     *
+     * @param registry registry to add the motors to
+     * @param controller name of the CAN controller the motors are on, or an empty string for the RIO
+     * @param timeoutMs time to wait for each motor to report each period and confirm period changes
+     */
+    public void register(@NotNull CANDeviceRegistry registry, @NotNull String controller, int timeoutMs) {
+        for (WPI_TalonFX motor : motors) {
+            registry.registerTalonFX(
+                    new CANDeviceConfig(
+                            motor.getDeviceID(),
+                            controller
+                    ),
+                    motor,
+                    timeoutMs
+            );
+        }
+    }
+
+    private void refreshIfStale() {
+        if (refreshedCycle != LoopClock.getCycle())
+            refresh();
+    }
+
+    /**
+     * Read the motors. Called automatically by the first read in each loop cycle
+     */
+    public void refresh() {
+        refreshedCycle = LoopClock.getCycle();
+        timestamp = Timer.getFPGATimestamp();
+
+        boolean readCurrent = timestamp - lastCurrentTimestamp >= kCurrentPeriodMs / 1000.0;
+        boolean readTemperature = timestamp - lastTemperatureTimestamp >= kTemperaturePeriodMs / 1000.0;
+
+        for (int i = 0; i < motors.length; i++) {
+            WPI_TalonFX motor = motors[i];
+            if (i < feedbackMotors) {
+                positions[i] = motor.getSelectedSensorPosition();
+                velocities[i] = motor.getSelectedSensorVelocity();
+            }
+
+            if (readCurrent) {
+                statorCurrents[i] = motor.getStatorCurrent();
+                supplyCurrents[i] = motor.getSupplyCurrent();
+            }
+            if (readTemperature)
+                temperatures[i] = motor.getTemperature();
+        }
+
+        if (readCurrent)
+            lastCurrentTimestamp = timestamp;
+        if (readTemperature)
+            lastTemperatureTimestamp = timestamp;
+    }
+
+    /**
+     * Get the number of motors in the snapshot
+     *
+     * @return motor count
+     */
+    public int getMotorCount() {
+        return motors.length;
+    }
+
+    /**
+     * Get the number of motors, from the start of the snapshot, whose position and velocity are read
+     *
+     * @return feedback motor count
+     */
+    public int getFeedbackMotorCount() {
+        return feedbackMotors;
+    }
+
+    /**
+     * Get the time the snapshot was last refreshed
+     *
+     * @return FPGA timestamp in seconds
+     */
+    public double getTimestamp() {
+        refreshIfStale();
+        return timestamp;
+    }
+
+    /**
+     * Get the position of a motor in {@code CTRE ticks}. Returns {@link Double#NaN} for motors whose feedback isn't
+     * read
+     *
+     * @param motor index of the motor in the snapshot
+     * @return motor position
+     */
+    public double getPosition(int motor) {
+        refreshIfStale();
+        return positions[motor];
+    }
+
+    /**
+     * Get the velocity of a motor in {@code CTRE ticks per 100ms}. Returns {@link Double#NaN} for motors whose
+     * feedback isn't read
+     *
+     * @param motor index of the motor in the snapshot
+     * @return motor velocity
+     */
+    public double getVelocity(int motor) {
+        refreshIfStale();
+        return velocities[motor];
+    }
+
+    /**
+     * Get the current through the motor windings in amps
+     *
+     * @param motor index of the motor in the snapshot
+     * @return stator current
+     */
+    public double getStatorCurrent(int motor) {
+        refreshIfStale();
+        return statorCurrents[motor];
+    }
+
+    /**
+     * Get the current drawn from the supply in amps
+     *
+     * @param motor index of the motor in the snapshot
+     * @return supply current
+     */
+    public double getSupplyCurrent(int motor) {
+        refreshIfStale();
+        return supplyCurrents[motor];
+    }
+
+    /**
+     * Get the temperature of a motor in degrees Celsius
+     *
+     * @param motor index of the motor in the snapshot
+     * @return motor temperature
+     */
+    public double getTemperature(int motor) {
+        refreshIfStale();
+        return temperatures[motor];
+    }
+
+    /**
+     * Get the total current drawn from the supply by every motor in amps
+     *
+     * @return total supply current
+     */
+    public double getTotalSupplyCurrent() {
+        refreshIfStale();
+        double total = 0;
+        for (double current : supplyCurrents) {
+            total += current;
+        }
+        return total;
+    }
+
+    /**
+     * Get the temperature of the hottest motor in degrees Celsius
+     *
+     * @return max temperature
+     */
+    public double getMaxTemperature() {
+        refreshIfStale();
+        double max = temperatures[0];
+        for (double temperature : temperatures) {
+            max = Math.max(max, temperature);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,255 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.sensors.vision.PhotonVision.PhotonVisionState;
+
+/**
+ * The positions of fiducial targets (such as AprilTags) on the field, stored in arrays indexed by fiducial id. Used to
+ * turn a fiducial target seen by a camera into an estimate of the robot's position on the field in constant time per
+ * target.
+ * <p>
+ * Targets only report yaw and pitch, so the robot's heading (i.e. from a gyro) is needed to place the robot. The rotation
+ * of each tag's pose is the direction the tag faces, and its inverse transform is cached so estimates that would put the
+ * robot behind the tag are rejected without allocating.
+ */
+public class FiducialFieldLayout {
+    private final Pose2d[] tagPoses;
+    private final Transform2d[] fieldToTagInverse;
+    private final double[] tagX, tagY, tagHeights;
+    // Inverse of each tag's pose, which moves a field position into the tag's frame (Pos x = in front of the tag)
+    private final double[] inverseX, inverseY, inverseCos, inverseSin;
+
+    /**
+     * Create an empty layout
+     *
+     * @param maxId largest fiducial id that can be stored in the layout
+     */
+    public FiducialFieldLayout(int maxId) {
+        if (maxId < 0)
+            throw new IllegalArgumentException("Max id cannot be negative");
+
+        this.tagPoses = new Pose2d[maxId + 1];
+        this.fieldToTagInverse = new Transform2d[maxId + 1];
+        this.tagX = new double[maxId + 1];
+        this.tagY = new double[maxId + 1];
+        this.tagHeights = new double[maxId + 1];
+        this.inverseX = new double[maxId + 1];
+        this.inverseY = new double[maxId + 1];
+        this.inverseCos = new double[maxId + 1];
+        this.inverseSin = new double[maxId + 1];
+    }
+
+    /**
+     * Set the position of a tag on the field
+     *
+     * @param id fiducial id of the tag
+     * @param pose position of the tag on the field, facing the direction the tag faces
+     * @param heightMeters height of the center of the tag off the floor in meters
+     */
+    public void setTag(int id, @NotNull Pose2d pose, double heightMeters) {
+        if (!(0 <= id && id < tagPoses.length))
+            throw new IllegalArgumentException("Fiducial id must be within 0-" + (tagPoses.length - 1));
+
+        Transform2d inverse = new Transform2d(
+                pose,
+                new Pose2d()
+        );
+
+        tagPoses[id] = pose;
+        fieldToTagInverse[id] = inverse;
+        tagX[id] = pose.getX();
+        tagY[id] = pose.getY();
+        tagHeights[id] = heightMeters;
+        inverseX[id] = inverse.getX();
+        inverseY[id] = inverse.getY();
+        inverseCos[id] = inverse.getRotation().getCos();
+        inverseSin[id] = inverse.getRotation().getSin();
+    }
+
+    /**
+     * Whether the layout contains a tag
+     *
+     * @param id fiducial id of the tag
+     * @return if the tag's position is known
+     */
+    public boolean hasTag(int id) {
+        return 0 <= id && id < tagPoses.length && tagPoses[id] != null;
+    }
+
+    /**
+     * Get the position of a tag on the field. Returns {@code null} if the tag isn't in the layout
+     *
+     * @param id fiducial id of the tag
+     * @return position of the tag
+     */
+    public Pose2d getTagPose(int id) {
+        return hasTag(id) ? tagPoses[id] : null;
+    }
+
+    /**
+     * Get the cached inverse of a tag's pose, which transforms a field position into the tag's frame. Returns
+     * {@code null} if the tag isn't in the layout
+     *
+     * @param id fiducial id of the tag
+     * @return inverse of the tag's pose
+     */
+    public Transform2d getTagInverseTransform(int id) {
+        return hasTag(id) ? fieldToTagInverse[id] : null;
+    }
+
+    /**
+     * Get the height of a tag off the floor in meters. Returns 0 if the tag isn't in the layout
+     *
+     * @param id fiducial id of the tag
+     * @return height of the tag
+     */
+    public double getTagHeight(int id) {
+        return hasTag(id) ? tagHeights[id] : 0;
+    }
+
+    /**
+     * Estimate the robot's position on the field from a single fiducial target without allocating. Nothing is
+     * written if the target isn't in the layout or the estimate is behind the tag
+     *
+     * @param fiducialId fiducial id of the target
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param mountConfig mount of the camera that saw the target
+     * @param headingCos cosine of the robot's heading on the field
+     * @param headingSin sine of the robot's heading on the field
+     * @param out array of at least length 2 to write the estimated x and y position to
+     * @return whether an estimate was written
+     */
+    public boolean estimateRobotPosition(
+            int fiducialId, double yawDegrees, double pitchDegrees, @NotNull VisionCameraMountConfig mountConfig,
+            double headingCos, double headingSin, @NotNull double[] out
+    ) {
+        if (!hasTag(fiducialId))
+            return false;
+
+        // Position of the tag relative to the robot, where positive x is forward and positive y is left
+        mountConfig.getRobotRelativeTargetPosition(
+                yawDegrees,
+                pitchDegrees,
+                tagHeights[fiducialId],
+                out
+        );
+
+        // Rotate into field coordinates and step back from the tag to the robot
+        double x = tagX[fiducialId] - (out[0] * headingCos - out[1] * headingSin);
+        double y = tagY[fiducialId] - (out[0] * headingSin + out[1] * headingCos);
+
+        // A camera can only see the front of a tag
+        if (inverseX[fiducialId] + x * inverseCos[fiducialId] - y * inverseSin[fiducialId] < 0)
+            return false;
+
+        out[0] = x;
+        out[1] = y;
+        return true;
+    }
+
+    /**
+     * Estimate the robot's position on the field from a single fiducial target. Returns {@code null} if the target
+     * isn't in the layout or the estimate is behind the tag
+     *
+     * @param fiducialId fiducial id of the target
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param mountConfig mount of the camera that saw the target
+     * @param robotHeading heading of the robot on the field
+     * @return estimated robot position
+     */
+    public Pose2d estimateRobotPose(
+            int fiducialId, double yawDegrees, double pitchDegrees, @NotNull VisionCameraMountConfig mountConfig,
+            @NotNull Rotation2d robotHeading
+    ) {
+        double[] position = new double[2];
+        boolean estimated = estimateRobotPosition(
+                fiducialId,
+                yawDegrees,
+                pitchDegrees,
+                mountConfig,
+                robotHeading.getCos(),
+                robotHeading.getSin(),
+                position
+        );
+
+        return estimated ? new Pose2d(
+                position[0],
+                position[1],
+                robotHeading
+        ) : null;
+    }
+
+    /**
+     * Estimate the robot's position on the field from a PhotonVision state. Returns {@code null} if the state is
+     * {@code null}, its target isn't in the layout, or the estimate is behind the tag
+     *
+     * @param state state with a fiducial target
+     * @param mountConfig mount of the camera that saw the target
+     * @param robotHeading heading of the robot on the field
+     * @return estimated robot position
+     */
+    public Pose2d estimateRobotPose(
+            PhotonVisionState state, @NotNull VisionCameraMountConfig mountConfig, @NotNull Rotation2d robotHeading
+    ) {
+        if (state == null)
+            return null;
+
+        return estimateRobotPose(
+                state.getFiducialId(),
+                state.getYaw(),
+                state.getPitch(),
+                mountConfig,
+                robotHeading
+        );
+    }
+
+    /**
+     * Estimate the robot's position on the field from every known fiducial target in a frame. Positions are written
+     * to caller owned arrays so no objects are created per target
+     *
+     * @param buffer targets from a single frame
+     * @param mountConfig mount of the camera that saw the targets
+     * @param robotHeading heading of the robot on the field at the time of the frame
+     * @param xOut array to write the x position of each estimate to
+     * @param yOut array to write the y position of each estimate to
+     * @param idsOut array to write the fiducial id each estimate came from to
+     * @return number of estimates written
+     */
+    public int estimateRobotPositions(
+            @NotNull VisionTargetBuffer buffer, @NotNull VisionCameraMountConfig mountConfig,
+            @NotNull Rotation2d robotHeading, @NotNull double[] xOut, @NotNull double[] yOut, @NotNull int[] idsOut
+    ) {
+        int capacity = Math.min(xOut.length, Math.min(yOut.length, idsOut.length));
+        double headingCos = robotHeading.getCos();
+        double headingSin = robotHeading.getSin();
+        double[] position = new double[2];
+        int count = 0;
+
+        for (int i = 0; i < buffer.size() && count < capacity; i++) {
+            VisionTargetBuffer.Target target = buffer.get(i);
+            boolean estimated = estimateRobotPosition(
+                    target.getFiducialId(),
+                    target.getYaw(),
+                    target.getPitch(),
+                    mountConfig,
+                    headingCos,
+                    headingSin,
+                    position
+            );
+
+            if (estimated) {
+                xOut[count] = position[0];
+                yOut[count] = position[1];
+                idsOut[count] = target.getFiducialId();
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
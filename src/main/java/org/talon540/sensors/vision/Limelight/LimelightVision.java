@@ -16,6 +16,10 @@ import org.talon540.sensors.vision.VisionSystem;
 public class LimelightVision extends VisionSystem {
     private final NetworkTable limelightTable = NetworkTableInstance.getDefault().getTable("limelight");
 
+    // Last pipeline requested, used when the limelight doesn't publish getpipe. LED and camera mode writes are checked
+    // against the current value of their entry, so changes made by other clients are not mistaken for our own
+    private int requestedPipeline = -1;
+
     /**
      * Construct a limelight object
      *
@@ -60,25 +64,32 @@ public class LimelightVision extends VisionSystem {
 
     @Override
     public void setLEDMode(LEDStates state) {
-        NetworkTableEntry ledEntry = limelightTable.getEntry("ledMode");
+        int mode;
         switch (state) {
             case OFF:
-                ledEntry.setNumber(1);
+                mode = 1;
                 break;
 
             case BLINK:
-                ledEntry.setNumber(2);
+                mode = 2;
                 break;
 
             case ON:
-                ledEntry.setNumber(3);
+                mode = 3;
                 break;
 
             case DEFAULT:
             default:
-                ledEntry.setNumber(0);
+                mode = 0;
 
         }
+
+        NetworkTableEntry ledEntry = limelightTable.getEntry("ledMode");
+        if (ledEntry.exists() && ledEntry.getDouble(-1) == mode)
+            return;
+
+        ledEntry.setNumber(mode);
+        NetworkTableInstance.getDefault().flush();
     }
 
     @Override
@@ -86,12 +97,43 @@ public class LimelightVision extends VisionSystem {
         return (int) limelightTable.getEntry("getpipe").getDouble(0);
     }
 
+    /**
+     * Whether the limelight publishes the index of the pipeline it is running. Older firmware and some recordings don't
+     *
+     * @return if getpipe is published
+     */
+    private boolean isPipelineReported() {
+        return limelightTable.getEntry("getpipe").exists();
+    }
+
+    /**
+     * Request a pipeline. The request is only skipped if the limelight already reports running that pipeline, so it is
+     * sent again if the camera reboots or the pipeline is changed elsewhere
+     *
+     * @param index pipeline index [0, 9]
+     */
     @Override
     public void setPipelineIndex(int index) {
         if (!(0 <= index && index <= 9))
             throw new IllegalArgumentException("Pipeline must be within 0-9");
 
+        boolean confirmed = isPipelineReported() ? getPipelineIndex() == index : index == requestedPipeline;
+        requestedPipeline = index;
+
+        if (confirmed)
+            return;
+
         limelightTable.getEntry("pipeline").setNumber(index);
+        NetworkTableInstance.getDefault().flush();
+    }
+
+    /**
+     * Whether the limelight reports that it is running the most recently requested pipeline. Always true if the
+     * limelight doesn't publish the pipeline it is running
+     */
+    @Override
+    public boolean isPipelineSettled() {
+        return requestedPipeline == -1 || !isPipelineReported() || getPipelineIndex() == requestedPipeline;
     }
 
     @Override
@@ -111,12 +153,17 @@ public class LimelightVision extends VisionSystem {
 
     @Override
     public void setCamMode(CAMMode targetMode) {
-        limelightTable.getEntry("camMode").setNumber(targetMode.val);
+        NetworkTableEntry camModeEntry = limelightTable.getEntry("camMode");
+        if (camModeEntry.exists() && camModeEntry.getDouble(-1) == targetMode.val)
+            return;
+
+        camModeEntry.setNumber(targetMode.val);
+        NetworkTableInstance.getDefault().flush();
     }
 
     @Override
     public boolean targetViewed() {
-        return limelightTable.getEntry("tv").getDouble(0) != 0;
+        return isPipelineSettled() && limelightTable.getEntry("tv").getDouble(0) != 0;
     }
 
     @Override
@@ -124,12 +171,32 @@ public class LimelightVision extends VisionSystem {
         if (!targetViewed())
             return null;
 
-        return new VisionState(
-                limelightTable.getEntry("tx").getDouble(0),
-                limelightTable.getEntry("ty").getDouble(0),
-                limelightTable.getEntry("ts").getDouble(0),
-                limelightTable.getEntry("ta").getDouble(0),
-                limelightTable.getEntry("tl").getDouble(0)
+        NetworkTableEntry txEntry = limelightTable.getEntry("tx");
+        NetworkTableEntry tyEntry = limelightTable.getEntry("ty");
+        NetworkTableEntry tsEntry = limelightTable.getEntry("ts");
+        NetworkTableEntry taEntry = limelightTable.getEntry("ta");
+        NetworkTableEntry tlEntry = limelightTable.getEntry("tl");
+
+        VisionState state = new VisionState(
+                txEntry.getDouble(0),
+                tyEntry.getDouble(0),
+                tsEntry.getDouble(0),
+                taEntry.getDouble(0),
+                tlEntry.getDouble(0)
+        );
+
+        // Entries are only updated when their value changes, so the frame arrived with the most recently changed one
+        long arrivalMicros = Math.max(
+                Math.max(
+                        Math.max(txEntry.getLastChange(), tyEntry.getLastChange()),
+                        Math.max(tsEntry.getLastChange(), taEntry.getLastChange())
+                ),
+                tlEntry.getLastChange()
+        );
+        latencyMonitor.recordFrame(
+                state,
+                arrivalMicros / 1e6
         );
+        return state;
     }
 }
@@ -1,18 +1,28 @@
 package org.talon540.sensors.vision.PhotonVision;
 
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.Timer;
 import org.jetbrains.annotations.NotNull;
 import org.photonvision.PhotonCamera;
 import org.photonvision.common.hardware.VisionLEDMode;
+import org.photonvision.targeting.PhotonPipelineResult;
 import org.talon540.sensors.vision.VisionCameraMountConfig;
 import org.talon540.sensors.vision.VisionFlags.CAMMode;
 import org.talon540.sensors.vision.VisionFlags.LEDStates;
 import org.talon540.sensors.vision.VisionSystem;
+import org.talon540.sensors.vision.VisionTargetBuffer;
 
 
 public class PhotonVision extends VisionSystem {
     private final PhotonCamera camera;
 
+    // Last values written to the camera, used to drop redundant writes
+    private int requestedPipeline = -1;
+    private CAMMode requestedCamMode;
+    private LEDStates requestedLEDMode;
+    private double pipelineSwitchTimestamp = Double.NEGATIVE_INFINITY;
+
     /**
      * Construct a photon vision system with custom values
      *
@@ -66,6 +76,10 @@ public class PhotonVision extends VisionSystem {
 
     @Override
     public void setLEDMode(LEDStates state) {
+        if (state == requestedLEDMode)
+            return;
+        requestedLEDMode = state;
+
         switch (state) {
             case ON:
                 camera.setLED(VisionLEDMode.kOn);
@@ -80,6 +94,7 @@ public class PhotonVision extends VisionSystem {
                 camera.setLED(VisionLEDMode.kDefault);
                 break;
         }
+        NetworkTableInstance.getDefault().flush();
     }
 
     @Override
@@ -89,7 +104,25 @@ public class PhotonVision extends VisionSystem {
 
     @Override
     public void setPipelineIndex(int index) {
+        if (index == requestedPipeline)
+            return;
+        requestedPipeline = index;
+
         camera.setPipelineIndex(index);
+        pipelineSwitchTimestamp = Timer.getFPGATimestamp();
+        NetworkTableInstance.getDefault().flush();
+    }
+
+    /**
+     * Whether the latest result was captured after the most recent pipeline switch
+     */
+    @Override
+    public boolean isPipelineSettled() {
+        return isPipelineSettled(camera.getLatestResult());
+    }
+
+    private boolean isPipelineSettled(PhotonPipelineResult result) {
+        return result.getTimestampSeconds() > pipelineSwitchTimestamp;
     }
 
     @Override
@@ -99,17 +132,49 @@ public class PhotonVision extends VisionSystem {
 
     @Override
     public void setCamMode(CAMMode targetMode) {
+        if (targetMode == requestedCamMode)
+            return;
+        requestedCamMode = targetMode;
+
         camera.setDriverMode(targetMode == CAMMode.DRIVER);
+        NetworkTableInstance.getDefault().flush();
     }
 
     @Override
     public boolean targetViewed() {
-        return camera.getLatestResult().hasTargets();
+        PhotonPipelineResult result = camera.getLatestResult();
+        return isPipelineSettled(result) && result.hasTargets();
     }
 
     @Override
     public PhotonVisionState getVisionState() {
-        return PhotonVisionState.fromPhotonStream(camera.getLatestResult());
+        PhotonPipelineResult result = camera.getLatestResult();
+        if (!isPipelineSettled(result))
+            return null;
+
+        PhotonVisionState state = PhotonVisionState.fromPhotonStream(result);
+
+        // PhotonLib timestamps a result as the time its update arrived minus the pipeline latency
+        if (state != null)
+            latencyMonitor.recordFrame(
+                    state,
+                    state.getStateTimestamp() + state.getPipelineLatency()
+            );
+        return state;
+    }
+
+    @Override
+    public int getAllTargets(@NotNull VisionTargetBuffer buffer) {
+        PhotonPipelineResult result = camera.getLatestResult();
+        if (!isPipelineSettled(result)) {
+            buffer.clear();
+            return 0;
+        }
+
+        return PhotonVisionState.fillFromPhotonStream(
+                result,
+                buffer
+        );
     }
 
     @Override
@@ -117,7 +182,10 @@ public class PhotonVision extends VisionSystem {
         super.initSendable(builder);
         builder.addDoubleProperty(
                 "id",
-                () -> targetViewed() ? getVisionState().getFiducialId() : -2,
+                () -> {
+                    PhotonVisionState state = (PhotonVisionState) getTelemetryState();
+                    return state != null ? state.getFiducialId() : -2;
+                },
                 null
         );
     }
@@ -4,6 +4,9 @@ import org.jetbrains.annotations.NotNull;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
 import org.talon540.sensors.vision.VisionState;
+import org.talon540.sensors.vision.VisionTargetBuffer;
+
+import java.util.List;
 
 public class PhotonVisionState extends VisionState {
     private final int fiducialId;
@@ -36,6 +39,33 @@ public class PhotonVisionState extends VisionState {
         // this.poseAmbiguity = error;
     }
 
+    /**
+     * Create a vision state from data captured from a photon camera with a known capture timestamp
+     *
+     * @param yaw (horizontal offset from target) of target
+     * @param pitch (vertical offset from target) pitch of target
+     * @param skew skew of target
+     * @param area area of target
+     * @param pipelineLatency latency of the pipeline (time taken to run calculations)
+     * @param stateTimestamp timestamp of the time the frame was captured
+     * @param fiducialId fiduciary id of the target. If none, pass -1
+     */
+    public PhotonVisionState(
+            double yaw, double pitch, double skew, double area, double pipelineLatency, double stateTimestamp,
+            int fiducialId
+    ) {
+        super(
+                yaw,
+                pitch,
+                skew,
+                area,
+                pipelineLatency,
+                stateTimestamp
+        );
+
+        this.fiducialId = fiducialId;
+    }
+
     // /**
     //  * Get target error or the ambiguity of the primary target. Values above a certain threshold often mean this vision
     //  * state is unreliable or inaccurate. Will return {@code null} if the vision system doesn't support it
@@ -82,10 +112,47 @@ public class PhotonVisionState extends VisionState {
     public static PhotonVisionState fromPhotonStream(@NotNull PhotonPipelineResult stream) {
         return !stream.hasTargets() ? null : fromPhotonTarget(
                 stream.getBestTarget(),
-                stream.getLatencyMillis()
+                stream.getLatencyMillis(),
+                stream.getTimestampSeconds()
         );
     }
 
+    /**
+     * Fill a target buffer with every target from the latest data stream of a PhotonCamera. Targets past the capacity of
+     * the buffer are dropped
+     *
+     * @param stream photon camera results
+     * @param buffer buffer to fill in place
+     * @return number of targets in the buffer
+     */
+    public static int fillFromPhotonStream(@NotNull PhotonPipelineResult stream, @NotNull VisionTargetBuffer buffer) {
+        if (!stream.hasTargets()) {
+            buffer.clear();
+            return 0;
+        }
+
+        buffer.beginFrame(
+                stream.getLatencyMillis() / 1000,
+                stream.getTimestampSeconds()
+        );
+
+        List<PhotonTrackedTarget> targets = stream.getTargets();
+        for (int i = 0; i < targets.size(); i++) {
+            PhotonTrackedTarget target = targets.get(i);
+            if (!buffer.addTarget(
+                    target.getYaw(),
+                    target.getPitch(),
+                    target.getSkew(),
+                    target.getArea(),
+                    target.getFiducialId(),
+                    target.getPoseAmbiguity()
+            ))
+                break;
+        }
+
+        return buffer.size();
+    }
+
     /**
      * Create a vision state from a PhotonCamera Target
      *
@@ -106,4 +173,27 @@ public class PhotonVisionState extends VisionState {
                 target.getFiducialId()
         );
     }
+
+    /**
+     * Create a vision state from a PhotonCamera Target with a known capture timestamp
+     *
+     * @param target target from PhotonCamera
+     * @param pipelineLatency latency of the pipeline
+     * @param stateTimestamp timestamp of the time the frame was captured
+     * @return Talon Vision State from Photon Target
+     */
+    public static PhotonVisionState fromPhotonTarget(PhotonTrackedTarget target, double pipelineLatency, double stateTimestamp) {
+        if (target == null)
+            return null;
+
+        return new PhotonVisionState(
+                target.getYaw(),
+                target.getPitch(),
+                target.getSkew(),
+                target.getArea(),
+                pipelineLatency,
+                stateTimestamp,
+                target.getFiducialId()
+        );
+    }
 }
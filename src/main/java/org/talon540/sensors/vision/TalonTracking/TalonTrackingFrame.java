@@ -0,0 +1,116 @@
+package org.talon540.sensors.vision.TalonTracking;
+
+/**
+ * An immutable snapshot of a single frame published by a TalonTracking coprocessor. Frames are published as one packed
+ * double array in the form {@code [sequence, timestamp, tx, ty, ta]} so every value in a frame is read together.
+ */
+public final class TalonTrackingFrame {
+    /**
+     * Number of values in a packed frame
+     */
+    public static final int PACKED_LENGTH = 5;
+
+    private final long sequence;
+    private final double timestamp, tx, ty, ta;
+
+    /**
+     * Create a frame from data
+     *
+     * @param sequence increasing frame number from the coprocessor, which restarts when the coprocessor does
+     * @param timestamp time of capture in seconds as reported by the coprocessor
+     * @param tx horizontal offset of the game piece
+     * @param ty vertical offset of the game piece
+     * @param ta area of the game piece
+     */
+    public TalonTrackingFrame(long sequence, double timestamp, double tx, double ty, double ta) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.tx = tx;
+        this.ty = ty;
+        this.ta = ta;
+    }
+
+    /**
+     * Create a frame from a packed double array. Returns {@code null} if the array is too short to be a frame
+     *
+     * @param packed packed frame in the form {@code [sequence, timestamp, tx, ty, ta]}
+     * @return unpacked frame
+     */
+    public static TalonTrackingFrame fromPacked(double[] packed) {
+        if (packed == null || packed.length < PACKED_LENGTH)
+            return null;
+
+        return new TalonTrackingFrame(
+                (long) packed[0],
+                packed[1],
+                packed[2],
+                packed[3],
+                packed[4]
+        );
+    }
+
+    /**
+     * Pack the frame into a double array in the form {@code [sequence, timestamp, tx, ty, ta]}
+     *
+     * @return packed frame
+     */
+    public double[] toPacked() {
+        return new double[]{sequence, timestamp, tx, ty, ta};
+    }
+
+    /**
+     * Whether this frame was published after another frame. Any change in sequence counts as newer, including the
+     * sequence jumping backwards when the coprocessor restarts. Always true if the other frame is {@code null}
+     *
+     * @param other frame to compare against
+     * @return if this frame is newer
+     */
+    public boolean isNewerThan(TalonTrackingFrame other) {
+        return other == null || sequence != other.sequence;
+    }
+
+    /**
+     * Get the frame number from the coprocessor
+     *
+     * @return frame sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the time of capture in seconds as reported by the coprocessor
+     *
+     * @return frame timestamp
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the horizontal offset of the game piece
+     *
+     * @return tx
+     */
+    public double getTx() {
+        return tx;
+    }
+
+    /**
+     * Get the vertical offset of the game piece
+     *
+     * @return ty
+     */
+    public double getTy() {
+        return ty;
+    }
+
+    /**
+     * Get the area of the game piece
+     *
+     * @return ta
+     */
+    public double getTa() {
+        return ta;
+    }
+}
@@ -6,12 +6,30 @@ import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 
 public class TalonTrackingVision extends SubsystemBase {
     private final String tableName = "TalonTracking";
 
+    private final AtomicReference<TalonTrackingFrame> latestFrame = new AtomicReference<>();
+
+    private volatile boolean receivedFrame;
+
+    /**
+     * @deprecated read from {@link #getLatestFrame()} so values from the same frame are used together
+     */
+    @Deprecated
     public double tx;
+    /**
+     * @deprecated read from {@link #getLatestFrame()} so values from the same frame are used together
+     */
+    @Deprecated
     public double ty;
+    /**
+     * @deprecated read from {@link #getLatestFrame()} so values from the same frame are used together
+     */
+    @Deprecated
     public double ta;
 
     public TalonTrackingVision() {
@@ -19,22 +37,68 @@ public class TalonTrackingVision extends SubsystemBase {
 
         NetworkTableInstance.getDefault().getTable(this.tableName).getEntry("robot_ready").setBoolean(true);
 
+        NetworkTableInstance.getDefault().getTable(this.tableName).getEntry("frame").addListener(
+                event -> {
+                    if (event.value.isDoubleArray())
+                        updateFrame(TalonTrackingFrame.fromPacked(event.value.getDoubleArray()));
+                },
+                EntryListenerFlags.kNew | EntryListenerFlags.kUpdate
+        );
+
+        // Coprocessors that don't publish packed frames yet still publish tx, ty and ta as separate entries. These are
+        // only used until the first packed frame arrives
         NetworkTableInstance.getDefault().getTable(this.tableName).getEntry("tx").addListener(
-                event -> this.tx = event.value.getDouble(),
+                event -> {
+                    if (!receivedFrame)
+                        this.tx = event.value.getDouble();
+                },
                 EntryListenerFlags.kUpdate
         );
-
         NetworkTableInstance.getDefault().getTable(this.tableName).getEntry("ty").addListener(
-                event -> this.ty = event.value.getDouble(),
+                event -> {
+                    if (!receivedFrame)
+                        this.ty = event.value.getDouble();
+                },
                 EntryListenerFlags.kUpdate
         );
-
         NetworkTableInstance.getDefault().getTable(this.tableName).getEntry("ta").addListener(
-                event -> this.ta = event.value.getDouble(),
+                event -> {
+                    if (!receivedFrame)
+                        this.ta = event.value.getDouble();
+                },
                 EntryListenerFlags.kUpdate
         );
     }
 
+    @SuppressWarnings("deprecation")
+    private void updateFrame(TalonTrackingFrame frame) {
+        if (frame == null)
+            return;
+
+        receivedFrame = true;
+
+        if (!frame.isNewerThan(latestFrame.get()))
+            return;
+
+        latestFrame.set(frame);
+
+        this.tx = frame.getTx();
+        this.ty = frame.getTy();
+        this.ta = frame.getTa();
+    }
+
+    /**
+     * Get the latest frame published by the coprocessor. Every value in the frame was captured together. Use
+     * {@link TalonTrackingFrame#isNewerThan(TalonTrackingFrame)} to check if it has changed since the last read.
+     * Returns {@code null} if no frame has been received, such as when the coprocessor only publishes the legacy tx,
+     * ty and ta entries
+     *
+     * @return latest frame
+     */
+    public TalonTrackingFrame getLatestFrame() {
+        return latestFrame.get();
+    }
+
     /**
      * Set ball tracking data reporting state
      *
@@ -73,6 +137,11 @@ public class TalonTrackingVision extends SubsystemBase {
                 () -> this.ta,
                 null
         );
+        builder.addDoubleProperty(
+                "sequence",
+                () -> getLatestFrame() == null ? -1 : getLatestFrame().getSequence(),
+                null
+        );
 
     }
 }
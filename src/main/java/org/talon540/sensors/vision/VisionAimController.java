@@ -0,0 +1,149 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+
+/**
+ * Turns the robot to face a vision target. The yaw in a frame is measured relative to the robot's heading when the
+ * frame was captured, not its heading now, so the heading setpoint is computed from the heading at capture time found in
+ * the position map. Any turning done during the pipeline latency is therefore not counted twice, which lets the heading
+ * loop run at higher gains without overshooting.
+ * <p>
+ * The setpoint is only recomputed when a new frame arrives, while the heading loop itself runs every call to
+ * {@link #calculate(Rotation2d)}.
+ */
+public class VisionAimController {
+    private final VisionSystem visionSystem;
+    private final UnboundRobotPositionMap robotPositionMap;
+    private final PIDController headingController;
+
+    private Rotation2d headingSetpoint;
+    private VisionState latestState;
+    private double latestTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create an aim controller
+     *
+     * @param visionSystem vision system to read frames from
+     * @param robotPositionMap map of the robot's position over time, used to find the robot's heading at capture time
+     * @param headingController controller that takes the heading in radians and returns a rotation output
+     */
+    public VisionAimController(
+            @NotNull VisionSystem visionSystem, @NotNull UnboundRobotPositionMap robotPositionMap,
+            @NotNull PIDController headingController
+    ) {
+        this.visionSystem = visionSystem;
+        this.robotPositionMap = robotPositionMap;
+        this.headingController = headingController;
+
+        this.headingController.enableContinuousInput(
+                -Math.PI,
+                Math.PI
+        );
+    }
+
+    /**
+     * Read the latest frame from the vision system and update the heading setpoint if it is new. Should be called once
+     * per loop
+     *
+     * @return whether the setpoint was updated
+     */
+    public boolean update() {
+        return addVisionState(visionSystem.getVisionState());
+    }
+
+    /**
+     * Update the heading setpoint from a frame. Frames that are {@code null}, the same frame as the latest frame used, or
+     * captured while the position map is empty are ignored. Frames are matched by their data rather than their
+     * timestamp, since re-reading an unchanged frame gives it a new timestamp on some vision systems
+     *
+     * @param state frame to aim from
+     * @return whether the setpoint was updated
+     */
+    public boolean addVisionState(VisionState state) {
+        if (state == null || state.isSameFrame(latestState))
+            return false;
+
+        Pose2d poseAtCapture = robotPositionMap.getPositionFromTimestamp(state.getStateTimestamp());
+        if (poseAtCapture == null)
+            return false;
+
+        // Yaw is positive to the right, which is a clockwise (negative) rotation
+        headingSetpoint = poseAtCapture.getRotation().minus(Rotation2d.fromDegrees(state.getYaw()));
+        latestState = state;
+        latestTimestamp = state.getStateTimestamp();
+
+        return true;
+    }
+
+    /**
+     * Calculate the rotation output needed to face the target. Returns 0 if no target has been seen
+     *
+     * @param currentHeading current heading of the robot
+     * @return output of the heading controller
+     */
+    public double calculate(@NotNull Rotation2d currentHeading) {
+        if (headingSetpoint == null)
+            return 0;
+
+        return headingController.calculate(
+                currentHeading.getRadians(),
+                headingSetpoint.getRadians()
+        );
+    }
+
+    /**
+     * Get the heading the robot needs to face the target. Returns {@code null} if no target has been seen
+     *
+     * @return heading setpoint
+     */
+    public Rotation2d getHeadingSetpoint() {
+        return headingSetpoint;
+    }
+
+    /**
+     * Get the yaw to the target in degrees from the robot's current heading, compensated for the turning done since
+     * the frame was captured. Positive is right, matching {@link VisionState#getYaw()}. Returns {@code null} if no
+     * target has been seen
+     *
+     * @param currentHeading current heading of the robot
+     * @return compensated target yaw
+     */
+    public Double getCompensatedYaw(@NotNull Rotation2d currentHeading) {
+        if (headingSetpoint == null)
+            return null;
+
+        return currentHeading.minus(headingSetpoint).getDegrees();
+    }
+
+    /**
+     * Whether the robot is facing the target within the heading controller's tolerance
+     *
+     * @return if the robot is aimed
+     */
+    public boolean atSetpoint() {
+        return headingSetpoint != null && headingController.atSetpoint();
+    }
+
+    /**
+     * Get the timestamp of the frame the setpoint was computed from
+     *
+     * @return latest frame timestamp
+     */
+    public double getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    /**
+     * Clear the setpoint and reset the heading controller
+     */
+    public void reset() {
+        headingSetpoint = null;
+        latestState = null;
+        latestTimestamp = Double.NEGATIVE_INFINITY;
+        headingController.reset();
+    }
+}
@@ -1,13 +1,22 @@
 package org.talon540.sensors.vision;
 
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import org.jetbrains.annotations.NotNull;
 import org.talon540.math.Vector2d;
 
 public class VisionCameraMountConfig {
     private final double mountHeightMeters;
     private final double mountAngleDegrees, mountAngleRadians;
+    private final double mountYawDegrees;
     private final Vector2d robotRelativePosition;
 
+    // Precomputed rigid transform from the center of the robot to the camera (Pos x = forward, Pos y = left), with its
+    // translation and rotation cached as primitives so applying it doesn't allocate or call trig functions
+    private final Transform2d robotToCamera, cameraToRobot;
+    private final double cameraX, cameraY, cameraCos, cameraSin;
+
     /**
      * Create an object used to tell the position of the camera on the robot
      *
@@ -15,26 +24,42 @@ public class VisionCameraMountConfig {
      * @param mountAngleDegrees pitch of the camera from the horizontal axis (positive values mean up)
      * @param robotRelativePosition camera's position relative to the center of the robot. (Pos X = right, Pos y =
      * forward)
+     * @param mountYawDegrees direction the camera faces relative to the front of the robot (positive values mean left)
      */
     private VisionCameraMountConfig(
-            double mountHeightMeters, double mountAngleDegrees, @NotNull Vector2d robotRelativePosition
+            double mountHeightMeters, double mountAngleDegrees, @NotNull Vector2d robotRelativePosition,
+            double mountYawDegrees
     ) {
         this.mountHeightMeters = mountHeightMeters;
         this.mountAngleDegrees = mountAngleDegrees;
         this.mountAngleRadians = Math.toRadians(mountAngleDegrees);
+        this.mountYawDegrees = mountYawDegrees;
         this.robotRelativePosition = robotRelativePosition;
+
+        Translation2d cameraTranslation = robotRelativePosition.getTranslationFromOrigin();
+        this.robotToCamera = new Transform2d(
+                cameraTranslation,
+                Rotation2d.fromDegrees(mountYawDegrees)
+        );
+        this.cameraToRobot = robotToCamera.inverse();
+        this.cameraX = robotToCamera.getX();
+        this.cameraY = robotToCamera.getY();
+        this.cameraCos = robotToCamera.getRotation().getCos();
+        this.cameraSin = robotToCamera.getRotation().getSin();
     }
 
     /**
-     * Create an object used to tell the position of the camera on the robot.
+     * Create an object used to tell the position and direction of a camera that doesn't face the front of the robot
      *
      * @param mountHeightMeters height of the camera off the floor in meters
      * @param mountAngleDegrees pitch of the camera from the horizontal axis (positive values mean up)
      * @param robotPositionX side to side offset (x-axis); center of the robot is (0,0) right is positive
      * @param robotPositionY forward or reverse offset (y-axis); center of the robot is (0,0), forward is positive
+     * @param mountYawDegrees direction the camera faces relative to the front of the robot (positive values mean left)
      */
     public VisionCameraMountConfig(
-            double mountHeightMeters, double mountAngleDegrees, double robotPositionX, double robotPositionY
+            double mountHeightMeters, double mountAngleDegrees, double robotPositionX, double robotPositionY,
+            double mountYawDegrees
     ) {
         this(
                 mountHeightMeters,
@@ -42,7 +67,28 @@ public class VisionCameraMountConfig {
                 new Vector2d(
                         robotPositionX,
                         robotPositionY
-                )
+                ),
+                mountYawDegrees
+        );
+    }
+
+    /**
+     * Create an object used to tell the position of the camera on the robot.
+     *
+     * @param mountHeightMeters height of the camera off the floor in meters
+     * @param mountAngleDegrees pitch of the camera from the horizontal axis (positive values mean up)
+     * @param robotPositionX side to side offset (x-axis); center of the robot is (0,0) right is positive
+     * @param robotPositionY forward or reverse offset (y-axis); center of the robot is (0,0), forward is positive
+     */
+    public VisionCameraMountConfig(
+            double mountHeightMeters, double mountAngleDegrees, double robotPositionX, double robotPositionY
+    ) {
+        this(
+                mountHeightMeters,
+                mountAngleDegrees,
+                robotPositionX,
+                robotPositionY,
+                0
         );
     }
 
@@ -60,7 +106,8 @@ public class VisionCameraMountConfig {
                 new Vector2d(
                         0,
                         0
-                )
+                ),
+                0
         );
     }
 
@@ -91,6 +138,15 @@ public class VisionCameraMountConfig {
         return mountAngleRadians;
     }
 
+    /**
+     * Get the direction the camera faces relative to the front of the robot in degrees, where positive is left
+     *
+     * @return mount yaw in degrees
+     */
+    public double getMountYawDegrees() {
+        return mountYawDegrees;
+    }
+
     /**
      * Get the position of the camera relative to the center (0, 0) of the robot
      *
@@ -117,4 +173,142 @@ public class VisionCameraMountConfig {
     public double getOffsetY() {
         return robotRelativePosition.getY();
     }
+
+    /**
+     * Get the rigid transform from the center of the robot to the camera, where positive x is forward and positive y
+     * is left
+     *
+     * @return robot to camera transform
+     */
+    public Transform2d getRobotToCamera() {
+        return robotToCamera;
+    }
+
+    /**
+     * Get the rigid transform from the camera to the center of the robot, where positive x is forward and positive y
+     * is left
+     *
+     * @return camera to robot transform
+     */
+    public Transform2d getCameraToRobot() {
+        return cameraToRobot;
+    }
+
+    /**
+     * Get the distance along the floor from the camera to the base of a target
+     *
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param targetHeightMeters height of the target in meters
+     * @return distance from the camera to the base of the target in meters
+     */
+    public double getCameraDistanceToTargetBase(double pitchDegrees, double targetHeightMeters) {
+        return (targetHeightMeters - mountHeightMeters) / Math.tan(mountAngleRadians + Math.toRadians(pitchDegrees));
+    }
+
+    /**
+     * Get the position of the base of a target relative to the center of the robot without allocating, where positive x
+     * is forward and positive y is left. The target is placed relative to the camera and then moved by the cached robot
+     * to camera transform
+     *
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param targetHeightMeters height of the target in meters
+     * @param out array of at least length 2 to write the x and y position to
+     */
+    public void getRobotRelativeTargetPosition(
+            double yawDegrees, double pitchDegrees, double targetHeightMeters, @NotNull double[] out
+    ) {
+        double distanceMeters = getCameraDistanceToTargetBase(
+                pitchDegrees,
+                targetHeightMeters
+        );
+        double yawRadians = Math.toRadians(yawDegrees);
+
+        // Position relative to the camera, where yaw is positive to the right
+        double x = distanceMeters * Math.cos(yawRadians);
+        double y = -distanceMeters * Math.sin(yawRadians);
+
+        out[0] = cameraX + x * cameraCos - y * cameraSin;
+        out[1] = cameraY + x * cameraSin + y * cameraCos;
+    }
+
+    /**
+     * Get the position of the base of a target relative to the center of the robot, where positive x is forward and
+     * positive y is left
+     *
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param targetHeightMeters height of the target in meters
+     * @return robot relative position of the target
+     */
+    public Translation2d getRobotRelativeTargetPosition(double yawDegrees, double pitchDegrees, double targetHeightMeters) {
+        double[] position = new double[2];
+        getRobotRelativeTargetPosition(
+                yawDegrees,
+                pitchDegrees,
+                targetHeightMeters,
+                position
+        );
+
+        return new Translation2d(
+                position[0],
+                position[1]
+        );
+    }
+
+    /**
+     * Get the distance from the center of the robot to the base of a target
+     *
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param targetHeightMeters height of the target in meters
+     * @return distance from the center of the robot to the base of the target in meters
+     */
+    public double getRobotDistanceToTargetBase(double yawDegrees, double pitchDegrees, double targetHeightMeters) {
+        double[] position = new double[2];
+        getRobotRelativeTargetPosition(
+                yawDegrees,
+                pitchDegrees,
+                targetHeightMeters,
+                position
+        );
+
+        return Math.hypot(
+                position[0],
+                position[1]
+        );
+    }
+
+    /**
+     * Get the position of every target in a buffer relative to the center of the robot, written to caller owned arrays
+     * so no objects are created per target. Positive x is forward and positive y is left
+     *
+     * @param buffer targets from a single frame
+     * @param targetHeightMeters height of the targets in meters
+     * @param xOut array to write the x position of each target to
+     * @param yOut array to write the y position of each target to
+     * @return number of positions written
+     */
+    public int getRobotRelativeTargetPositions(
+            @NotNull VisionTargetBuffer buffer, double targetHeightMeters, @NotNull double[] xOut,
+            @NotNull double[] yOut
+    ) {
+        int count = Math.min(buffer.size(), Math.min(xOut.length, yOut.length));
+        double[] position = new double[2];
+
+        for (int i = 0; i < count; i++) {
+            VisionTargetBuffer.Target target = buffer.get(i);
+            getRobotRelativeTargetPosition(
+                    target.getYaw(),
+                    target.getPitch(),
+                    targetHeightMeters,
+                    position
+            );
+
+            xOut[i] = position[0];
+            yOut[i] = position[1];
+        }
+
+        return count;
+    }
 }
@@ -0,0 +1,138 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.Timer;
+import org.talon540.math.mapping.data.Histogram;
+import org.talon540.telemetry.RateLimitedSupplier;
+
+/**
+ * Records the latency of each stage between a camera and robot code into fixed memory histograms:
+ * <ul>
+ *     <li>pipeline: time the camera took to process the frame</li>
+ *     <li>read delay: time from the frame's NetworkTables update arriving on the robot to robot code reading it</li>
+ *     <li>consumption: time from receipt to first use by robot code</li>
+ * </ul>
+ * All latencies are recorded in seconds. Frames read more than once are only recorded the first time. The network time
+ * from capture to arrival can't be measured without a clock shared with the camera, so it isn't recorded. Read delay is
+ * only recorded for sources that know when their update arrived.
+ */
+public class VisionLatencyMonitor implements Sendable {
+    private static final double kMaxLatencySeconds = 0.25;
+    private static final int kBinCount = 250;
+
+    private final Histogram pipelineLatency = new Histogram(kMaxLatencySeconds, kBinCount);
+    private final Histogram readDelay = new Histogram(kMaxLatencySeconds, kBinCount);
+    private final Histogram consumptionLatency = new Histogram(kMaxLatencySeconds, kBinCount);
+
+    private VisionState lastRecordedState, lastConsumedState;
+
+    /**
+     * Record the pipeline latency of a frame when it is received, for sources that can't tell when the frame arrived
+     *
+     * @param state received frame
+     */
+    public void recordFrame(VisionState state) {
+        recordFrame(
+                state,
+                Double.NaN
+        );
+    }
+
+    /**
+     * Record the pipeline latency and read delay of a frame when it is received
+     *
+     * @param state received frame
+     * @param arrivalTimestamp FPGA timestamp in seconds of when the frame's NetworkTables update arrived, or
+     * {@link Double#NaN} if it isn't known
+     */
+    public synchronized void recordFrame(VisionState state, double arrivalTimestamp) {
+        if (state == null || state.isSameFrame(lastRecordedState))
+            return;
+
+        lastRecordedState = state;
+        pipelineLatency.addNode(state.getPipelineLatency());
+
+        if (!Double.isNaN(arrivalTimestamp))
+            readDelay.addNode(state.getReceiptTimestamp() - arrivalTimestamp);
+    }
+
+    /**
+     * Record the consumption latency of a frame when it is first used by robot code
+     *
+     * @param state used frame
+     */
+    public synchronized void recordConsumption(VisionState state) {
+        if (state == null || state.isSameFrame(lastConsumedState))
+            return;
+
+        lastConsumedState = state;
+        consumptionLatency.addNode(Timer.getFPGATimestamp() - state.getReceiptTimestamp());
+    }
+
+    /**
+     * Reset all recorded latencies
+     */
+    public synchronized void clear() {
+        pipelineLatency.clear();
+        readDelay.clear();
+        consumptionLatency.clear();
+    }
+
+    /**
+     * Get a percentile of the recorded pipeline latency
+     *
+     * @param percentile percentile to find [0, 1]
+     * @return latency in seconds
+     */
+    public synchronized double getPipelineLatencyPercentile(double percentile) {
+        return pipelineLatency.getPercentile(percentile);
+    }
+
+    /**
+     * Get a percentile of the recorded read delay
+     *
+     * @param percentile percentile to find [0, 1]
+     * @return delay in seconds
+     */
+    public synchronized double getReadDelayPercentile(double percentile) {
+        return readDelay.getPercentile(percentile);
+    }
+
+    /**
+     * Get a percentile of the recorded consumption latency
+     *
+     * @param percentile percentile to find [0, 1]
+     * @return latency in seconds
+     */
+    public synchronized double getConsumptionLatencyPercentile(double percentile) {
+        return consumptionLatency.getPercentile(percentile);
+    }
+
+    private synchronized double[] getStatistics() {
+        return new double[]{
+                pipelineLatency.getPercentile(0.5), pipelineLatency.getPercentile(0.95), pipelineLatency.getPercentile(0.99), pipelineLatency.getMax(),
+                readDelay.getPercentile(0.5), readDelay.getPercentile(0.95), readDelay.getPercentile(0.99), readDelay.getMax(),
+                consumptionLatency.getPercentile(0.5), consumptionLatency.getPercentile(0.95), consumptionLatency.getPercentile(0.99), consumptionLatency.getMax()
+        };
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        RateLimitedSupplier<double[]> statistics = new RateLimitedSupplier<>(this::getStatistics);
+
+        String[] stages = {"pipeline", "readDelay", "consumption"};
+        String[] values = {"p50", "p95", "p99", "max"};
+
+        for (int stage = 0; stage < stages.length; stage++) {
+            for (int value = 0; value < values.length; value++) {
+                int index = stage * values.length + value;
+                builder.addDoubleProperty(
+                        stages[stage] + "/" + values[value],
+                        () -> statistics.get()[index],
+                        null
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Filters vision measurements before they are fused with odometry. Each measurement is compared against the odometry
+ * prediction and the residual is scored against running statistics of recent accepted residuals. Measurements close to
+ * the prediction are accepted at full weight, ones further away are down-weighted, and outliers are rejected.
+ * <p>
+ * The running statistics are exponentially weighted so each measurement is gated in constant time without allocating.
+ * Since only accepted residuals update the statistics, a step error in odometry (such as wheel slip) would otherwise
+ * cause every later measurement to be rejected. After a number of statistical rejections in a row the statistics are
+ * reset and the measurement is accepted, since odometry is then more likely to be wrong than vision. Residuals past the
+ * max residual are never accepted.
+ */
+public class VisionMeasurementGate implements Sendable {
+    private final double maxResidual;
+    private final double downWeightSigma, rejectSigma;
+    private final double smoothing;
+    private final int warmupCount, recoveryCount;
+
+    private double mean, variance;
+    private long statisticsCount;
+    private long total, downWeighted, rejected, recoveries;
+    private int consecutiveRejections;
+
+    /**
+     * Create a measurement gate
+     *
+     * @param maxResidual residuals larger than this are always rejected
+     * @param downWeightSigma number of standard deviations from the mean residual after which measurements are
+     * down-weighted
+     * @param rejectSigma number of standard deviations from the mean residual after which measurements are rejected
+     * @param smoothing weight given to each new residual in the running statistics (0, 1]
+     * @param warmupCount number of accepted residuals required before the statistical gate is used
+     * @param recoveryCount number of rejections in a row after which the statistics are reset and the measurement is
+     * accepted, or 0 to never recover
+     */
+    public VisionMeasurementGate(
+            double maxResidual, double downWeightSigma, double rejectSigma, double smoothing, int warmupCount,
+            int recoveryCount
+    ) {
+        if (!(0 < downWeightSigma && downWeightSigma < rejectSigma))
+            throw new IllegalArgumentException("Down-weight sigma must be greater than 0 and less than reject sigma");
+        if (!(0 < smoothing && smoothing <= 1))
+            throw new IllegalArgumentException("Smoothing must be within (0, 1]");
+        if (recoveryCount < 0)
+            throw new IllegalArgumentException("Recovery count cannot be negative");
+
+        this.maxResidual = maxResidual;
+        this.downWeightSigma = downWeightSigma;
+        this.rejectSigma = rejectSigma;
+        this.smoothing = smoothing;
+        this.warmupCount = warmupCount;
+        this.recoveryCount = recoveryCount;
+    }
+
+    /**
+     * Create a measurement gate that recovers after 10 rejections in a row
+     *
+     * @param maxResidual residuals larger than this are always rejected
+     * @param downWeightSigma number of standard deviations from the mean residual after which measurements are
+     * down-weighted
+     * @param rejectSigma number of standard deviations from the mean residual after which measurements are rejected
+     * @param smoothing weight given to each new residual in the running statistics (0, 1]
+     * @param warmupCount number of accepted residuals required before the statistical gate is used
+     */
+    public VisionMeasurementGate(
+            double maxResidual, double downWeightSigma, double rejectSigma, double smoothing, int warmupCount
+    ) {
+        this(
+                maxResidual,
+                downWeightSigma,
+                rejectSigma,
+                smoothing,
+                warmupCount,
+                10
+        );
+    }
+
+    /**
+     * Create a measurement gate that down-weights past 2 standard deviations, rejects past 3 and recovers after 10
+     * rejections in a row
+     *
+     * @param maxResidual residuals larger than this are always rejected
+     */
+    public VisionMeasurementGate(double maxResidual) {
+        this(
+                maxResidual,
+                2,
+                3,
+                0.05,
+                10
+        );
+    }
+
+    /**
+     * Gate a scalar measurement, such as a distance to a target
+     *
+     * @param measured value measured by the vision system
+     * @param predicted value predicted from odometry
+     * @return weight to fuse the measurement with [0, 1], where 0 means the measurement was rejected
+     */
+    public double gate(double measured, double predicted) {
+        return gateResidual(measured - predicted);
+    }
+
+    /**
+     * Gate a pose measurement by the distance between the measured and predicted positions
+     *
+     * @param measured robot pose implied by the vision system
+     * @param predicted robot pose predicted from odometry
+     * @return weight to fuse the measurement with [0, 1], where 0 means the measurement was rejected
+     */
+    public double gate(@NotNull Pose2d measured, @NotNull Pose2d predicted) {
+        return gateDistance(measured.getTranslation().getDistance(predicted.getTranslation()));
+    }
+
+    /**
+     * Gate a signed residual between a measurement and its prediction. Residuals far from the mean on either side are
+     * down-weighted or rejected
+     *
+     * @param residual measured value minus predicted value
+     * @return weight to fuse the measurement with [0, 1], where 0 means the measurement was rejected
+     */
+    public synchronized double gateResidual(double residual) {
+        return gate(
+                residual,
+                false
+        );
+    }
+
+    /**
+     * Gate a non-negative distance between a measurement and its prediction. Only distances far above the mean are
+     * down-weighted or rejected, so a measurement that agrees with the prediction is always accepted
+     *
+     * @param distance distance between the measured and predicted values
+     * @return weight to fuse the measurement with [0, 1], where 0 means the measurement was rejected
+     */
+    public synchronized double gateDistance(double distance) {
+        return gate(
+                distance,
+                true
+        );
+    }
+
+    private double gate(double residual, boolean oneSided) {
+        total++;
+
+        if (Double.isNaN(residual) || Math.abs(residual) > maxResidual) {
+            rejected++;
+            return 0;
+        }
+
+        double weight = 1;
+        boolean reject = false;
+
+        if (statisticsCount >= warmupCount && variance > 0) {
+            double deviation = oneSided ? residual - mean : Math.abs(residual - mean);
+            double sigmas = deviation / Math.sqrt(variance);
+
+            if (sigmas >= rejectSigma) {
+                reject = true;
+            } else if (sigmas > downWeightSigma) {
+                weight = (rejectSigma - sigmas) / (rejectSigma - downWeightSigma);
+                downWeighted++;
+            }
+        }
+
+        if (reject) {
+            consecutiveRejections++;
+            if (recoveryCount == 0 || consecutiveRejections < recoveryCount) {
+                rejected++;
+                return 0;
+            }
+
+            // Every recent measurement disagreed with the prediction, so start over from this one
+            mean = 0;
+            variance = 0;
+            statisticsCount = 0;
+            recoveries++;
+        }
+
+        consecutiveRejections = 0;
+        updateStatistics(residual);
+        return weight;
+    }
+
+    private void updateStatistics(double residual) {
+        if (statisticsCount == 0) {
+            mean = residual;
+            variance = 0;
+        } else {
+            double delta = residual - mean;
+            mean += smoothing * delta;
+            variance = (1 - smoothing) * (variance + smoothing * delta * delta);
+        }
+        statisticsCount++;
+    }
+
+    /**
+     * Get the fraction of measurements that were rejected
+     *
+     * @return rejection rate [0, 1]
+     */
+    public synchronized double getRejectionRate() {
+        return total == 0 ? 0 : (double) rejected / total;
+    }
+
+    /**
+     * Get the fraction of measurements that were down-weighted
+     *
+     * @return down-weight rate [0, 1]
+     */
+    public synchronized double getDownWeightRate() {
+        return total == 0 ? 0 : (double) downWeighted / total;
+    }
+
+    /**
+     * Get the number of measurements that have been gated
+     *
+     * @return measurement count
+     */
+    public synchronized long getMeasurementCount() {
+        return total;
+    }
+
+    /**
+     * Get the number of times the statistics were reset after too many rejections in a row
+     *
+     * @return recovery count
+     */
+    public synchronized long getRecoveryCount() {
+        return recoveries;
+    }
+
+    /**
+     * Get the running mean of accepted residuals
+     *
+     * @return residual mean
+     */
+    public synchronized double getResidualMean() {
+        return mean;
+    }
+
+    /**
+     * Get the running standard deviation of accepted residuals
+     *
+     * @return residual standard deviation
+     */
+    public synchronized double getResidualStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Reset the running statistics and counts
+     */
+    public synchronized void reset() {
+        mean = 0;
+        variance = 0;
+        statisticsCount = 0;
+        total = 0;
+        downWeighted = 0;
+        rejected = 0;
+        recoveries = 0;
+        consecutiveRejections = 0;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addDoubleProperty(
+                "count",
+                this::getMeasurementCount,
+                null
+        );
+        builder.addDoubleProperty(
+                "rejectionRate",
+                this::getRejectionRate,
+                null
+        );
+        builder.addDoubleProperty(
+                "downWeightRate",
+                this::getDownWeightRate,
+                null
+        );
+        builder.addDoubleProperty(
+                "recoveries",
+                this::getRecoveryCount,
+                null
+        );
+        builder.addDoubleProperty(
+                "residualMean",
+                this::getResidualMean,
+                null
+        );
+        builder.addDoubleProperty(
+                "residualStdDev",
+                this::getResidualStandardDeviation,
+                null
+        );
+    }
+}
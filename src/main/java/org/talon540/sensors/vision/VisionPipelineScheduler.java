@@ -0,0 +1,183 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.sensors.vision.VisionFlags.CAMMode;
+import org.talon540.sensors.vision.VisionFlags.LEDStates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces pipeline, camera mode and LED requests for a {@link VisionSystem}. Requests made during a loop are only
+ * applied once, when {@link #update()} is called, so commands that toggle settings can't make the camera flap between
+ * pipelines. The scheduler can also time-multiplex several pipelines on one camera, accounting for the time the camera
+ * takes to switch.
+ */
+public class VisionPipelineScheduler {
+    private final VisionSystem visionSystem;
+    private final double switchCostSeconds;
+    private final List<MultiplexedPipeline> multiplexedPipelines = new ArrayList<>();
+
+    private int requestedPipeline = -1;
+    private CAMMode requestedCamMode;
+    private LEDStates requestedLEDMode;
+
+    private int appliedPipeline = -1;
+    private int activeSlot = 0;
+    private double slotStartTimestamp, lastSwitchTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a scheduler for a vision system
+     *
+     * @param visionSystem vision system to control
+     * @param switchCostSeconds time in seconds the camera takes to produce valid frames after a pipeline switch
+     */
+    public VisionPipelineScheduler(@NotNull VisionSystem visionSystem, double switchCostSeconds) {
+        if (switchCostSeconds < 0)
+            throw new IllegalArgumentException("Switch cost cannot be negative");
+
+        this.visionSystem = visionSystem;
+        this.switchCostSeconds = switchCostSeconds;
+    }
+
+    /**
+     * Request a pipeline. Ignored while pipelines are being multiplexed
+     *
+     * @param index pipeline index
+     */
+    public void requestPipeline(int index) {
+        requestedPipeline = index;
+    }
+
+    /**
+     * Request a camera mode
+     *
+     * @param mode camera mode
+     */
+    public void requestCamMode(@NotNull CAMMode mode) {
+        requestedCamMode = mode;
+    }
+
+    /**
+     * Request an LED mode
+     *
+     * @param state LED mode
+     */
+    public void requestLEDMode(@NotNull LEDStates state) {
+        requestedLEDMode = state;
+    }
+
+    /**
+     * Add a pipeline to the multiplexing schedule. Pipelines are run in the order they were added, each one for its
+     * dwell time after the switch cost has passed
+     *
+     * @param index pipeline index
+     * @param dwellSeconds time in seconds to produce valid frames from the pipeline before moving to the next one
+     */
+    public void addMultiplexedPipeline(int index, double dwellSeconds) {
+        if (dwellSeconds <= 0)
+            throw new IllegalArgumentException("Dwell time must be greater than 0");
+
+        if (multiplexedPipelines.isEmpty()) {
+            activeSlot = 0;
+            slotStartTimestamp = Timer.getFPGATimestamp();
+        }
+
+        multiplexedPipelines.add(new MultiplexedPipeline(
+                index,
+                dwellSeconds
+        ));
+    }
+
+    /**
+     * Stop multiplexing and go back to the requested pipeline
+     */
+    public void clearMultiplexedPipelines() {
+        multiplexedPipelines.clear();
+    }
+
+    /**
+     * Whether pipelines are being multiplexed
+     *
+     * @return if multiplexing
+     */
+    public boolean isMultiplexing() {
+        return !multiplexedPipelines.isEmpty();
+    }
+
+    /**
+     * Apply pending requests and advance the multiplexing schedule. Should be called once per loop
+     */
+    public void update() {
+        double timestamp = Timer.getFPGATimestamp();
+
+        int targetPipeline = requestedPipeline;
+        if (!multiplexedPipelines.isEmpty()) {
+            if (activeSlot >= multiplexedPipelines.size())
+                activeSlot = 0;
+
+            if (timestamp - slotStartTimestamp >= switchCostSeconds + multiplexedPipelines.get(activeSlot).dwellSeconds) {
+                activeSlot = (activeSlot + 1) % multiplexedPipelines.size();
+                slotStartTimestamp = timestamp;
+            }
+
+            targetPipeline = multiplexedPipelines.get(activeSlot).index;
+        }
+
+        if (targetPipeline != -1 && targetPipeline != appliedPipeline) {
+            visionSystem.setPipelineIndex(targetPipeline);
+            appliedPipeline = targetPipeline;
+            lastSwitchTimestamp = timestamp;
+        }
+
+        if (requestedCamMode != null) {
+            visionSystem.setCamMode(requestedCamMode);
+            requestedCamMode = null;
+        }
+
+        if (requestedLEDMode != null) {
+            visionSystem.setLEDMode(requestedLEDMode);
+            requestedLEDMode = null;
+        }
+    }
+
+    /**
+     * Get the pipeline most recently applied by the scheduler. Returns -1 if none has been applied
+     *
+     * @return active pipeline index
+     */
+    public int getActivePipeline() {
+        return appliedPipeline;
+    }
+
+    /**
+     * Whether results from the vision system belong to the active pipeline. False until the switch cost has passed and
+     * the vision system reports that the switch has completed
+     *
+     * @return if results are valid
+     */
+    public boolean isResultValid() {
+        return Timer.getFPGATimestamp() - lastSwitchTimestamp >= switchCostSeconds && visionSystem.isPipelineSettled();
+    }
+
+    /**
+     * Get the latest vision state if it belongs to the active pipeline. Returns {@code null} if the target isn't found
+     * or the pipeline is still switching
+     *
+     * @return latest vision state
+     */
+    public VisionState getVisionState() {
+        return isResultValid() ? visionSystem.getVisionState() : null;
+    }
+
+    private static class MultiplexedPipeline {
+        private final int index;
+        private final double dwellSeconds;
+
+        private MultiplexedPipeline(int index, double dwellSeconds) {
+            this.index = index;
+            this.dwellSeconds = dwellSeconds;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.wpilibj.Notifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Polls a {@link VisionSystem} on a background {@link Notifier} thread at a higher rate than the main loop. Frames are
+ * decoded as soon as they arrive and handed to the main thread through a lock-free single slot, so the main loop always
+ * sees the newest frame without waiting up to a full loop period for it.
+ */
+public class VisionPoller implements AutoCloseable {
+    private final VisionSystem visionSystem;
+    private final Notifier notifier;
+    private final double periodSeconds;
+
+    private final AtomicReference<VisionState> pendingState = new AtomicReference<>();
+    private volatile VisionState latestState;
+
+    // Only accessed from the notifier thread
+    private VisionState lastPolledState;
+
+    /**
+     * Create a poller for a vision system. The poller does not run until {@link #start()} is called
+     *
+     * @param visionSystem vision system to poll
+     * @param periodSeconds time between polls in seconds
+     */
+    public VisionPoller(@NotNull VisionSystem visionSystem, double periodSeconds) {
+        if (periodSeconds <= 0)
+            throw new IllegalArgumentException("Period must be greater than 0");
+
+        this.visionSystem = visionSystem;
+        this.periodSeconds = periodSeconds;
+        this.notifier = new Notifier(this::poll);
+    }
+
+    /**
+     * Create a poller for a vision system that polls every 5ms
+     *
+     * @param visionSystem vision system to poll
+     */
+    public VisionPoller(@NotNull VisionSystem visionSystem) {
+        this(
+                visionSystem,
+                0.005
+        );
+    }
+
+    /**
+     * Start polling the vision system in the background
+     */
+    public void start() {
+        notifier.startPeriodic(periodSeconds);
+    }
+
+    /**
+     * Stop polling the vision system
+     */
+    public void stop() {
+        notifier.stop();
+    }
+
+    private void poll() {
+        VisionState state = visionSystem.getVisionState();
+
+        if (state == null) {
+            lastPolledState = null;
+            latestState = null;
+            return;
+        }
+
+        if (state.isSameFrame(lastPolledState))
+            return;
+
+        lastPolledState = state;
+        latestState = state;
+        pendingState.set(state);
+    }
+
+    /**
+     * Get the latest frame decoded by the poller, whether or not it has been seen before. Returns {@code null} if the
+     * target isn't currently viewed
+     *
+     * @return latest vision state
+     */
+    public VisionState getLatestState() {
+        VisionState state = latestState;
+        visionSystem.getLatencyMonitor().recordConsumption(state);
+        return state;
+    }
+
+    /**
+     * Take the newest frame decoded since the last call. Each frame is only returned once; returns {@code null} if no
+     * new frame has arrived
+     *
+     * @return new vision state
+     */
+    public VisionState takeNewState() {
+        VisionState state = pendingState.getAndSet(null);
+        visionSystem.getLatencyMonitor().recordConsumption(state);
+        return state;
+    }
+
+    /**
+     * Whether a new frame has arrived that has not been taken with {@link #takeNewState()}
+     *
+     * @return if there is a new frame
+     */
+    public boolean hasNewState() {
+        return pendingState.get() != null;
+    }
+
+    /**
+     * Get the vision system being polled
+     *
+     * @return vision system
+     */
+    public VisionSystem getVisionSystem() {
+        return visionSystem;
+    }
+
+    @Override
+    public void close() {
+        notifier.close();
+    }
+}
@@ -0,0 +1,316 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+import org.talon540.sensors.vision.PhotonVision.PhotonVisionState;
+
+/**
+ * Fuses odometry with latency compensated vision measurements. Odometry is added at a high rate and stored in a fixed
+ * size ring buffer along with the fused estimate at each sample. When a vision measurement arrives, the estimate at the
+ * measurement's capture time is corrected towards it and the odometry recorded since then is replayed on top of the
+ * correction.
+ * <p>
+ * Only the samples after the measurement are replayed and the history is bounded, so late or out of order frames from
+ * several cameras have a bounded update cost. Measurements older than the history are dropped.
+ */
+public class VisionPoseEstimator {
+    private final double[] timestamps;
+    private final Pose2d[] odometryPoses;
+    private final Pose2d[] estimatedPoses;
+    private final double translationGain, rotationGain;
+
+    private int start = 0;
+    private int size = 0;
+
+    private VisionMeasurementGate measurementGate;
+    private UnboundRobotPositionMap positionMap;
+
+    /**
+     * Create a pose estimator
+     *
+     * @param historySize number of odometry samples to keep for latency compensation
+     * @param translationGain fraction of the translation error corrected by each measurement (0, 1]
+     * @param rotationGain fraction of the rotation error corrected by each measurement [0, 1]
+     */
+    public VisionPoseEstimator(int historySize, double translationGain, double rotationGain) {
+        if (historySize < 2)
+            throw new IllegalArgumentException("History size must be at least 2");
+        if (!(0 < translationGain && translationGain <= 1) || !(0 <= rotationGain && rotationGain <= 1))
+            throw new IllegalArgumentException("Translation gain must be within (0, 1] and rotation gain within [0, 1]");
+
+        this.timestamps = new double[historySize];
+        this.odometryPoses = new Pose2d[historySize];
+        this.estimatedPoses = new Pose2d[historySize];
+        this.translationGain = translationGain;
+        this.rotationGain = rotationGain;
+    }
+
+    /**
+     * Create a pose estimator that keeps 1.5 seconds of history at a 20ms loop, corrects 10% of the translation error
+     * per measurement, and trusts the gyro for rotation
+     */
+    public VisionPoseEstimator() {
+        this(
+                75,
+                0.1,
+                0
+        );
+    }
+
+    /**
+     * Gate measurements before they are fused. Measurements are compared against the estimate at their capture time and
+     * corrected by the gate's weight
+     *
+     * @param measurementGate gate to use, or {@code null} to fuse every measurement
+     */
+    public void setMeasurementGate(VisionMeasurementGate measurementGate) {
+        this.measurementGate = measurementGate;
+    }
+
+    /**
+     * Record the fused estimate into a position map. Each odometry sample is written once, and when a measurement is
+     * fused only the corrected latest sample is written again, so earlier entries keep the estimate as it was at that
+     * time
+     *
+     * @param positionMap map to write to, or {@code null} to stop recording
+     */
+    public void setPositionMap(UnboundRobotPositionMap positionMap) {
+        this.positionMap = positionMap;
+    }
+
+    private int index(int i) {
+        return (start + i) % timestamps.length;
+    }
+
+    /**
+     * Add an odometry sample. Samples that aren't newer than the latest sample are ignored
+     *
+     * @param odometryPose position of the robot from odometry
+     * @param timestamp time of the sample in seconds
+     */
+    public void addOdometry(@NotNull Pose2d odometryPose, double timestamp) {
+        Pose2d estimate = odometryPose;
+
+        if (size > 0) {
+            int newest = index(size - 1);
+            if (timestamp <= timestamps[newest])
+                return;
+
+            estimate = estimatedPoses[newest].transformBy(odometryPose.minus(odometryPoses[newest]));
+        }
+
+        int slot;
+        if (size < timestamps.length) {
+            slot = index(size++);
+        } else {
+            slot = start;
+            start = (start + 1) % timestamps.length;
+        }
+
+        timestamps[slot] = timestamp;
+        odometryPoses[slot] = odometryPose;
+        estimatedPoses[slot] = estimate;
+
+        if (positionMap != null)
+            positionMap.addPositionToMap(estimate, timestamp);
+    }
+
+    /**
+     * Fuse a vision measurement of the robot's position
+     *
+     * @param visionPose position of the robot measured by vision
+     * @param timestamp capture time of the measurement in seconds
+     * @return if the measurement was fused
+     */
+    public boolean addVisionMeasurement(@NotNull Pose2d visionPose, double timestamp) {
+        return addVisionMeasurement(
+                visionPose,
+                timestamp,
+                1
+        );
+    }
+
+    /**
+     * Fuse a vision measurement of the robot's position, scaling the correction by a weight
+     *
+     * @param visionPose position of the robot measured by vision
+     * @param timestamp capture time of the measurement in seconds
+     * @param weight trust in the measurement [0, 1]
+     * @return if the measurement was fused
+     */
+    public boolean addVisionMeasurement(@NotNull Pose2d visionPose, double timestamp, double weight) {
+        int floor = findFloor(timestamp);
+        if (floor == -1 || weight <= 0)
+            return false;
+
+        // Move the measurement back to the time of the sample before it using the odometry between them
+        int floorSlot = index(floor);
+        Pose2d odometryAtMeasurement = interpolate(odometryPoses, floor, timestamp);
+        Pose2d visionAtFloor = visionPose.transformBy(odometryPoses[floorSlot].minus(odometryAtMeasurement));
+
+        if (measurementGate != null) {
+            weight *= measurementGate.gate(
+                    visionAtFloor,
+                    estimatedPoses[floorSlot]
+            );
+            if (weight <= 0)
+                return false;
+        }
+
+        estimatedPoses[floorSlot] = blend(
+                estimatedPoses[floorSlot],
+                visionAtFloor,
+                Math.min(weight, 1)
+        );
+
+        // Replay the odometry recorded after the measurement
+        for (int i = floor + 1; i < size; i++) {
+            int previous = index(i - 1);
+            int current = index(i);
+
+            estimatedPoses[current] = estimatedPoses[previous].transformBy(
+                    odometryPoses[current].minus(odometryPoses[previous])
+            );
+        }
+
+        if (positionMap != null) {
+            int newest = index(size - 1);
+            positionMap.addPositionToMap(estimatedPoses[newest], timestamps[newest]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Fuse a fiducial target from PhotonVision. The robot's heading at the capture time is taken from the estimate
+     *
+     * @param state state with a fiducial target
+     * @param layout positions of the fiducial targets on the field
+     * @param mountConfig mount of the camera that saw the target
+     * @return if the measurement was fused
+     */
+    public boolean addVisionState(
+            PhotonVisionState state, @NotNull FiducialFieldLayout layout, @NotNull VisionCameraMountConfig mountConfig
+    ) {
+        if (state == null)
+            return false;
+
+        Pose2d estimate = getEstimatedPosition(state.getStateTimestamp());
+        if (estimate == null)
+            return false;
+
+        Pose2d visionPose = layout.estimateRobotPose(
+                state,
+                mountConfig,
+                estimate.getRotation()
+        );
+        if (visionPose == null)
+            return false;
+
+        return addVisionMeasurement(visionPose, state.getStateTimestamp());
+    }
+
+    /**
+     * Find the position in the history of the last sample at or before a timestamp. Returns -1 if the timestamp is
+     * before the history
+     */
+    private int findFloor(double timestamp) {
+        if (size == 0 || timestamp < timestamps[index(0)])
+            return -1;
+
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (timestamps[index(mid)] <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    private Pose2d interpolate(Pose2d[] poses, int floor, double timestamp) {
+        int floorSlot = index(floor);
+        if (floor + 1 >= size)
+            return poses[floorSlot];
+
+        int ceilingSlot = index(floor + 1);
+        return poses[floorSlot].interpolate(
+                poses[ceilingSlot],
+                (timestamp - timestamps[floorSlot]) / (timestamps[ceilingSlot] - timestamps[floorSlot])
+        );
+    }
+
+    private Pose2d blend(Pose2d estimate, Pose2d measurement, double weight) {
+        double k = translationGain * weight;
+        double rotationError = measurement.getRotation().minus(estimate.getRotation()).getRadians();
+
+        return new Pose2d(
+                new Translation2d(
+                        estimate.getX() + k * (measurement.getX() - estimate.getX()),
+                        estimate.getY() + k * (measurement.getY() - estimate.getY())
+                ),
+                estimate.getRotation().plus(new Rotation2d(rotationGain * weight * rotationError))
+        );
+    }
+
+    /**
+     * Get the latest fused position of the robot. Returns {@code null} if no odometry has been added
+     *
+     * @return estimated robot position
+     */
+    public Pose2d getEstimatedPosition() {
+        return size == 0 ? null : estimatedPoses[index(size - 1)];
+    }
+
+    /**
+     * Get the fused position of the robot at a time within the history. Times before the history return the oldest
+     * sample. Returns {@code null} if no odometry has been added
+     *
+     * @param timestamp time in seconds
+     * @return estimated robot position
+     */
+    public Pose2d getEstimatedPosition(double timestamp) {
+        if (size == 0)
+            return null;
+
+        int floor = findFloor(timestamp);
+        if (floor == -1)
+            return estimatedPoses[index(0)];
+
+        return interpolate(estimatedPoses, floor, timestamp);
+    }
+
+    /**
+     * Get the timestamp of the oldest sample a measurement can be fused at. Returns {@link Double#NaN} if the history
+     * is empty
+     *
+     * @return oldest timestamp
+     */
+    public double getOldestTimestamp() {
+        return size == 0 ? Double.NaN : timestamps[index(0)];
+    }
+
+    /**
+     * Clear the history and start the estimate from a known position
+     *
+     * @param odometryPose position of the robot from odometry
+     * @param estimatedPose known position of the robot on the field
+     * @param timestamp time of the reset in seconds
+     */
+    public void resetPosition(@NotNull Pose2d odometryPose, @NotNull Pose2d estimatedPose, double timestamp) {
+        start = 0;
+        size = 1;
+        timestamps[0] = timestamp;
+        odometryPoses[0] = odometryPose;
+        estimatedPoses[0] = estimatedPose;
+
+        if (positionMap != null)
+            positionMap.addPositionToMap(estimatedPose, timestamp);
+    }
+}
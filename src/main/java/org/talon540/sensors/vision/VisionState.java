@@ -3,7 +3,7 @@ package org.talon540.sensors.vision;
 import edu.wpi.first.wpilibj.Timer;
 
 public class VisionState {
-    private final double yaw, pitch, skew, area, pipelineLatency, stateTimestamp;
+    private final double yaw, pitch, skew, area, pipelineLatency, stateTimestamp, receiptTimestamp;
 
     /**
      * Create a TalonVisionState from data
@@ -22,7 +22,30 @@ public class VisionState {
         this.skew = skew;
         this.area = area;
         this.pipelineLatency = pipelineLatency / 1000;
-        this.stateTimestamp = Timer.getFPGATimestamp() - this.pipelineLatency + 0.011;
+        this.receiptTimestamp = Timer.getFPGATimestamp();
+        this.stateTimestamp = this.receiptTimestamp - this.pipelineLatency + 0.011;
+    }
+
+    /**
+     * Create a TalonVisionState from data with a capture timestamp reported by the vision system
+     *
+     * @param yaw (horizontal offset from target) of target
+     * @param pitch (vertical offset from target) pitch of target
+     * @param skew skew of target
+     * @param area area of target
+     * @param pipelineLatency latency of the pipeline (time taken to run calculations)
+     * @param stateTimestamp timestamp of the time the frame was captured
+     */
+    public VisionState(
+            double yaw, double pitch, double skew, double area, double pipelineLatency, double stateTimestamp
+    ) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.skew = skew;
+        this.area = area;
+        this.pipelineLatency = pipelineLatency / 1000;
+        this.receiptTimestamp = Timer.getFPGATimestamp();
+        this.stateTimestamp = stateTimestamp;
     }
 
     /**
@@ -43,6 +66,15 @@ public class VisionState {
         return stateTimestamp;
     }
 
+    /**
+     * Get the timestamp of the time the state was received by robot code
+     *
+     * @return receipt timestamp
+     */
+    public double getReceiptTimestamp() {
+        return receiptTimestamp;
+    }
+
     /**
      * Get target yaw in degrees. Equivalent to tx
      *
@@ -78,4 +110,15 @@ public class VisionState {
     public double getArea() {
         return area;
     }
+
+    /**
+     * Whether another state was decoded from the same camera frame as this state. Vision systems don't report a frame
+     * id, so two states with identical target data and latency are treated as the same frame
+     *
+     * @param other state to compare against
+     * @return if both states came from the same frame
+     */
+    public boolean isSameFrame(VisionState other) {
+        return other != null && yaw == other.yaw && pitch == other.pitch && skew == other.skew && area == other.area && pipelineLatency == other.pipelineLatency;
+    }
 }
@@ -3,17 +3,36 @@ package org.talon540.sensors.vision;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import org.jetbrains.annotations.NotNull;
-import org.talon540.math.Vector2d;
 import org.talon540.sensors.vision.VisionFlags.CAMMode;
 import org.talon540.sensors.vision.VisionFlags.LEDStates;
+import org.talon540.telemetry.RateLimitedDoubleSupplier;
+import org.talon540.telemetry.RateLimitedSupplier;
+
+import java.util.function.ToDoubleFunction;
 
 public abstract class VisionSystem implements Sendable {
+    /**
+     * Period in seconds between updates of telemetry that rarely changes, such as the pipeline and LED mode
+     */
+    protected static final double kSlowTelemetryPeriodSeconds = 0.5;
+
     protected final VisionCameraMountConfig mountConfig;
+    protected final VisionLatencyMonitor latencyMonitor = new VisionLatencyMonitor();
+    private final RateLimitedSupplier<VisionState> telemetryState = new RateLimitedSupplier<>(this::getVisionState);
 
     protected VisionSystem(@NotNull VisionCameraMountConfig mountConfig) {
         this.mountConfig = mountConfig;
     }
 
+    /**
+     * Get the position and angle of the camera on the robot
+     *
+     * @return camera mount config
+     */
+    public VisionCameraMountConfig getMountConfig() {
+        return mountConfig;
+    }
+
     /**
      * Get the current index of the running vision system pipeline
      *
@@ -26,6 +45,26 @@ public abstract class VisionSystem implements Sendable {
      */
     public abstract void setPipelineIndex(int index);
 
+    /**
+     * Get the monitor recording the latency of frames from this vision system. Implementations record each frame as it
+     * is received; consumers such as {@link VisionPoller} record when a frame is first used
+     *
+     * @return latency monitor
+     */
+    public VisionLatencyMonitor getLatencyMonitor() {
+        return latencyMonitor;
+    }
+
+    /**
+     * Whether the vision system is producing frames from the most recently requested pipeline. Results are treated as
+     * invalid until the switch has completed
+     *
+     * @return if the requested pipeline is running
+     */
+    public boolean isPipelineSettled() {
+        return true;
+    }
+
     /**
      * @return current mode of the LEDs
      */
@@ -84,6 +123,35 @@ public abstract class VisionSystem implements Sendable {
      */
     public abstract VisionState getVisionState();
 
+    /**
+     * Fill a target buffer with every target in the latest frame. Vision systems that only report a single target will
+     * fill the buffer with at most one target
+     *
+     * @param buffer buffer to fill in place
+     * @return number of targets in the buffer
+     */
+    public int getAllTargets(@NotNull VisionTargetBuffer buffer) {
+        VisionState state = getVisionState();
+        if (state == null) {
+            buffer.clear();
+            return 0;
+        }
+
+        buffer.beginFrame(
+                state.getPipelineLatency(),
+                state.getStateTimestamp()
+        );
+        buffer.addTarget(
+                state.getYaw(),
+                state.getPitch(),
+                state.getSkew(),
+                state.getArea(),
+                -1,
+                -1
+        );
+        return buffer.size();
+    }
+
     // Calculations
 
     /**
@@ -95,9 +163,10 @@ public abstract class VisionSystem implements Sendable {
      * unrealistic
      */
     public Double getDistanceFromTarget(double targetHeightMeters) {
-        if (!targetViewed())
+        VisionState state = getVisionState();
+        if (state == null)
             return null;
-        double deltaAngle = Math.toRadians(this.mountConfig.getMountAngleDegrees() + this.getVisionState().getPitch());
+        double deltaAngle = this.mountConfig.getMountAngleRadians() + Math.toRadians(state.getPitch());
         return (targetHeightMeters - this.mountConfig.getMountHeightMeters()) / Math.sin(deltaAngle);
     }
 
@@ -110,10 +179,13 @@ public abstract class VisionSystem implements Sendable {
      * value is unrealistic
      */
     public Double getDistanceFromTargetBase(double targetHeightMeters) {
-        if (!targetViewed())
+        VisionState state = getVisionState();
+        if (state == null)
             return null;
-        double deltaAngle = Math.toRadians(this.mountConfig.getMountAngleDegrees() + this.getVisionState().getPitch());
-        return (targetHeightMeters - this.mountConfig.getMountHeightMeters()) / Math.tan(deltaAngle);
+        return this.mountConfig.getCameraDistanceToTargetBase(
+                state.getPitch(),
+                targetHeightMeters
+        );
     }
 
     /**
@@ -124,82 +196,81 @@ public abstract class VisionSystem implements Sendable {
      * if target is not found or value is unrealistic
      */
     public Double getDistanceToTargetBaseFromRobotCenter(double targetHeightMeters) {
-        if (!targetViewed())
+        VisionState state = getVisionState();
+        if (state == null)
             return null;
+        return this.mountConfig.getRobotDistanceToTargetBase(
+                state.getYaw(),
+                state.getPitch(),
+                targetHeightMeters
+        );
+    }
 
-        Vector2d cameraPosition = mountConfig.getRobotRelativePosition();
-
-        double deltaX = cameraPosition.getX();
-        double deltaY = cameraPosition.getY();
-
-        double targetCameraOffsetRadians = Math.toRadians(getVisionState().getYaw());
-        double distanceFromTargetMeters = getDistanceFromTargetBase(targetHeightMeters);
-
-        // Included angle between the robot's center and the target
-        double theta = Math.signum(deltaX) * targetCameraOffsetRadians;
-
-        // @formatter:off
-
-        if (deltaX == 0) {
-            return distanceFromTargetMeters + deltaY;
-        } else if (deltaY == 0) {
-            theta += (Math.PI / 2.0);
-            return Math.sqrt(Math.pow(distanceFromTargetMeters, 2) + Math.pow(deltaX, 2) - (2 * distanceFromTargetMeters * Math.abs(deltaX) * Math.cos(theta)));
-        }
-
-        theta += deltaY < 0 ? (Math.PI / 2.0) - Math.atan(Math.abs(deltaY) / Math.abs(deltaX)) : Math.PI - Math.atan(Math.abs(deltaX) / Math.abs(deltaY));
-
-        double includedSideLength = Math.hypot(deltaX, deltaY);
+    /**
+     * Get the vision state shared by all telemetry properties. Updated at most once per telemetry period so the camera
+     * isn't queried once per property
+     *
+     * @return cached vision state
+     */
+    protected VisionState getTelemetryState() {
+        return telemetryState.get();
+    }
 
-        return Math.sqrt(Math.pow(distanceFromTargetMeters, 2) + Math.pow(includedSideLength, 2) - (2 * distanceFromTargetMeters * includedSideLength * Math.cos(theta)));
-        // @formatter:on
+    private static double getTelemetryValue(VisionState state, ToDoubleFunction<VisionState> getter) {
+        return state == null ? 0 : getter.applyAsDouble(state);
     }
 
     @Override
     public void initSendable(SendableBuilder builder) {
         builder.addBooleanProperty(
                 "viewed",
-                this::targetViewed,
+                () -> getTelemetryState() != null,
                 null
         );
         builder.addDoubleProperty(
                 "yaw",
-                () -> targetViewed() ? getVisionState().getYaw() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getYaw),
                 null
         );
         builder.addDoubleProperty(
                 "pitch",
-                () -> targetViewed() ? getVisionState().getPitch() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getPitch),
                 null
         );
         builder.addDoubleProperty(
                 "skew",
-                () -> targetViewed() ? getVisionState().getSkew() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getSkew),
                 null
         );
         builder.addDoubleProperty(
                 "area",
-                () -> targetViewed() ? getVisionState().getArea() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getArea),
                 null
         );
         builder.addDoubleProperty(
                 "latency",
-                () -> targetViewed() ? getVisionState().getPipelineLatency() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getPipelineLatency),
                 null
         );
         builder.addDoubleProperty(
                 "timestamp",
-                () -> targetViewed() ? getVisionState().getStateTimestamp() : 0,
+                () -> getTelemetryValue(getTelemetryState(), VisionState::getStateTimestamp),
                 null
         );
         builder.addDoubleProperty(
                 "pipeline",
-                this::getPipelineIndex,
+                new RateLimitedDoubleSupplier(
+                        this::getPipelineIndex,
+                        kSlowTelemetryPeriodSeconds
+                ),
                 null
         );
         builder.addStringProperty(
                 "LEDMode",
-                () -> getLEDMode().toString(),
+                new RateLimitedSupplier<>(
+                        () -> getLEDMode().toString(),
+                        kSlowTelemetryPeriodSeconds
+                ),
                 null
         );
     }
@@ -0,0 +1,276 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * A fixed capacity buffer holding every target seen in a single vision frame. All targets are allocated when the buffer
+ * is created and are overwritten in place each frame, so it can be refilled every loop without creating garbage.
+ */
+public class VisionTargetBuffer {
+    private final Target[] targets;
+    private int size;
+    private double pipelineLatency, stateTimestamp;
+
+    /**
+     * Create a target buffer
+     *
+     * @param capacity max number of targets that can be stored from a single frame
+     */
+    public VisionTargetBuffer(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+
+        this.targets = new Target[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.targets[i] = new Target();
+        }
+    }
+
+    /**
+     * Get the max number of targets the buffer can hold
+     *
+     * @return buffer capacity
+     */
+    public int getCapacity() {
+        return targets.length;
+    }
+
+    /**
+     * Get the number of targets stored from the current frame
+     *
+     * @return number of targets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether the current frame has no targets
+     *
+     * @return if the buffer is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get a target from the current frame. The returned object is reused and will be overwritten by the next frame,
+     * copy out any values that need to be kept
+     *
+     * @param index index of the target [0, size)
+     * @return target at that index
+     */
+    public Target get(int index) {
+        if (!(0 <= index && index < size))
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+        return targets[index];
+    }
+
+    /**
+     * Get latency of the pipeline for the current frame in seconds
+     *
+     * @return pipeline calculation time/latency
+     */
+    public double getPipelineLatency() {
+        return pipelineLatency;
+    }
+
+    /**
+     * Get the timestamp of the time of calculation of the current frame
+     *
+     * @return frame timestamp
+     */
+    public double getStateTimestamp() {
+        return stateTimestamp;
+    }
+
+    /**
+     * Remove all targets from the buffer
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Clear the buffer and start a new frame with a known latency and timestamp
+     *
+     * @param pipelineLatencySeconds latency of the pipeline in seconds
+     * @param stateTimestamp timestamp of the frame
+     */
+    public void beginFrame(double pipelineLatencySeconds, double stateTimestamp) {
+        this.size = 0;
+        this.pipelineLatency = pipelineLatencySeconds;
+        this.stateTimestamp = stateTimestamp;
+    }
+
+    /**
+     * Clear the buffer and start a new frame, calculating the timestamp the same way as {@link VisionState}
+     *
+     * @param pipelineLatencyMillis latency of the pipeline in milliseconds
+     */
+    public void beginFrame(double pipelineLatencyMillis) {
+        double latencySeconds = pipelineLatencyMillis / 1000;
+        beginFrame(
+                latencySeconds,
+                Timer.getFPGATimestamp() - latencySeconds + 0.011
+        );
+    }
+
+    /**
+     * Whether another buffer holds the same frame as this buffer. Vision systems don't report a frame id, so two
+     * buffers with identical targets and latency are treated as the same frame, matching
+     * {@link VisionState#isSameFrame(VisionState)}
+     *
+     * @param other buffer to compare against
+     * @return if both buffers hold the same frame
+     */
+    public boolean isSameFrame(VisionTargetBuffer other) {
+        if (other == null || size != other.size || pipelineLatency != other.pipelineLatency)
+            return false;
+
+        for (int i = 0; i < size; i++) {
+            if (!targets[i].isSameTarget(other.targets[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replace the contents of this buffer with a copy of another buffer. Targets past the capacity of this buffer are
+     * dropped
+     *
+     * @param other buffer to copy
+     */
+    public void copyFrom(VisionTargetBuffer other) {
+        beginFrame(
+                other.pipelineLatency,
+                other.stateTimestamp
+        );
+
+        int count = Math.min(other.size, targets.length);
+        for (int i = 0; i < count; i++) {
+            targets[i].set(
+                    other.targets[i].yaw,
+                    other.targets[i].pitch,
+                    other.targets[i].skew,
+                    other.targets[i].area,
+                    other.targets[i].fiducialId,
+                    other.targets[i].poseAmbiguity
+            );
+        }
+        size = count;
+    }
+
+    /**
+     * Add a target to the current frame. Targets past the capacity of the buffer are dropped
+     *
+     * @param yaw (horizontal offset from target) of target
+     * @param pitch (vertical offset from target) pitch of target
+     * @param skew skew of target
+     * @param area area of target
+     * @param fiducialId fiduciary id of the target. If none, pass -1
+     * @param poseAmbiguity ambiguity of the target. If not supported, pass -1
+     * @return whether the target was added
+     */
+    public boolean addTarget(double yaw, double pitch, double skew, double area, int fiducialId, double poseAmbiguity) {
+        if (size >= targets.length)
+            return false;
+
+        targets[size++].set(
+                yaw,
+                pitch,
+                skew,
+                area,
+                fiducialId,
+                poseAmbiguity
+        );
+        return true;
+    }
+
+    /**
+     * A single reusable target slot within a {@link VisionTargetBuffer}
+     */
+    public static class Target {
+        private double yaw, pitch, skew, area, poseAmbiguity;
+        private int fiducialId;
+
+        private Target() {}
+
+        private void set(double yaw, double pitch, double skew, double area, int fiducialId, double poseAmbiguity) {
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.skew = skew;
+            this.area = area;
+            this.fiducialId = fiducialId;
+            this.poseAmbiguity = poseAmbiguity;
+        }
+
+        private boolean isSameTarget(Target other) {
+            return yaw == other.yaw && pitch == other.pitch && skew == other.skew && area == other.area && fiducialId == other.fiducialId && poseAmbiguity == other.poseAmbiguity;
+        }
+
+        /**
+         * Get target yaw in degrees. Equivalent to tx
+         *
+         * @return target Yaw
+         */
+        public double getYaw() {
+            return yaw;
+        }
+
+        /**
+         * Get target pitch in degrees. Equivalent to ty
+         *
+         * @return target pitch
+         */
+        public double getPitch() {
+            return pitch;
+        }
+
+        /**
+         * Get target skew
+         *
+         * @return target skew
+         */
+        public double getSkew() {
+            return skew;
+        }
+
+        /**
+         * Get target area [0, 100]
+         *
+         * @return target area
+         */
+        public double getArea() {
+            return area;
+        }
+
+        /**
+         * Return the fiduciary id of the target if it has one. Returns -1 if there is no id
+         *
+         * @return fiduciary id
+         */
+        public int getFiducialId() {
+            return fiducialId;
+        }
+
+        /**
+         * Return if the target has a fiduciary id (such as an AprilTag) or not (Retro reflective tape)
+         *
+         * @return if there is a valid fiduciary id
+         */
+        public boolean hasFiducialId() {
+            return fiducialId != -1;
+        }
+
+        /**
+         * Get the pose ambiguity of the target. Returns -1 if the vision system doesn't support it
+         *
+         * @return pose ambiguity
+         */
+        public double getPoseAmbiguity() {
+            return poseAmbiguity;
+        }
+    }
+}
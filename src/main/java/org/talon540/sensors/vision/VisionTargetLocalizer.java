@@ -0,0 +1,187 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.math.mapping.position.BoundTranslationMap;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+
+/**
+ * A pipeline stage that converts each new frame from a {@link VisionSystem} into a field relative target position. The
+ * robot's position at the time the frame was captured is looked up from a position map and the camera mount offset is
+ * applied, so the result is compensated for pipeline latency. Results are stored in a time-indexed
+ * {@link BoundTranslationMap}, which keeps positions as primitives so localizing a frame doesn't allocate.
+ */
+public class VisionTargetLocalizer {
+    private final VisionSystem visionSystem;
+    private final UnboundRobotPositionMap robotPositionMap;
+    private final BoundTranslationMap targetPositionMap;
+    private final double targetHeightMeters;
+    private final double[] position = new double[2];
+
+    private VisionState latestState;
+    private double latestTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a localizer for a vision system
+     *
+     * @param visionSystem vision system to read frames from
+     * @param robotPositionMap map of the robot's position over time, used to find the robot's position at capture time
+     * @param targetHeightMeters height of the target in meters
+     * @param bufferSize max number of target positions to keep
+     */
+    public VisionTargetLocalizer(
+            @NotNull VisionSystem visionSystem, @NotNull UnboundRobotPositionMap robotPositionMap,
+            double targetHeightMeters, int bufferSize
+    ) {
+        this.visionSystem = visionSystem;
+        this.robotPositionMap = robotPositionMap;
+        this.targetPositionMap = new BoundTranslationMap(bufferSize);
+        this.targetHeightMeters = targetHeightMeters;
+    }
+
+    /**
+     * Create a localizer for a vision system that keeps the last 50 target positions
+     *
+     * @param visionSystem vision system to read frames from
+     * @param robotPositionMap map of the robot's position over time, used to find the robot's position at capture time
+     * @param targetHeightMeters height of the target in meters
+     */
+    public VisionTargetLocalizer(
+            @NotNull VisionSystem visionSystem, @NotNull UnboundRobotPositionMap robotPositionMap,
+            double targetHeightMeters
+    ) {
+        this(
+                visionSystem,
+                robotPositionMap,
+                targetHeightMeters,
+                50
+        );
+    }
+
+    /**
+     * Read the latest frame from the vision system and localize it. Should be called once per loop
+     *
+     * @return whether a new target position was added
+     */
+    public boolean update() {
+        return addVisionState(visionSystem.getVisionState());
+    }
+
+    /**
+     * Localize a frame from the vision system. Frames that are {@code null}, the same frame as the latest localized
+     * frame, or captured while the position map is empty are ignored. Frames are matched by their data rather than
+     * their timestamp, since re-reading an unchanged frame gives it a new timestamp on some vision systems
+     *
+     * @param state frame to localize
+     * @return whether a new target position was added
+     */
+    public boolean addVisionState(VisionState state) {
+        if (state == null || state.isSameFrame(latestState))
+            return false;
+
+        visionSystem.getLatencyMonitor().recordConsumption(state);
+
+        Pose2d robotPose = robotPositionMap.getPositionFromTimestamp(state.getStateTimestamp());
+        if (robotPose == null)
+            return false;
+
+        getFieldRelativeTargetPosition(
+                robotPose,
+                state.getYaw(),
+                state.getPitch(),
+                position
+        );
+
+        latestState = state;
+        latestTimestamp = state.getStateTimestamp();
+        targetPositionMap.addPositionToMap(
+                position[0],
+                position[1],
+                latestTimestamp
+        );
+        return true;
+    }
+
+    /**
+     * Get the field relative position of the target's base without allocating, given the robot's position when the
+     * frame was captured
+     *
+     * @param robotPose position of the robot on the field
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @param out array of at least length 2 to write the x and y position to
+     */
+    public void getFieldRelativeTargetPosition(
+            @NotNull Pose2d robotPose, double yawDegrees, double pitchDegrees, @NotNull double[] out
+    ) {
+        visionSystem.getMountConfig().getRobotRelativeTargetPosition(
+                yawDegrees,
+                pitchDegrees,
+                targetHeightMeters,
+                out
+        );
+
+        Rotation2d rotation = robotPose.getRotation();
+        double x = out[0], y = out[1];
+
+        out[0] = robotPose.getX() + x * rotation.getCos() - y * rotation.getSin();
+        out[1] = robotPose.getY() + x * rotation.getSin() + y * rotation.getCos();
+    }
+
+    /**
+     * Get the position of the target's base relative to the center of the robot, where positive x is forward and
+     * positive y is left
+     *
+     * @param yawDegrees yaw of the target in degrees (positive is right)
+     * @param pitchDegrees pitch of the target in degrees (positive is up)
+     * @return robot relative position of the target
+     */
+    public Translation2d getRobotRelativeTargetPosition(double yawDegrees, double pitchDegrees) {
+        return visionSystem.getMountConfig().getRobotRelativeTargetPosition(
+                yawDegrees,
+                pitchDegrees,
+                targetHeightMeters
+        );
+    }
+
+    /**
+     * Get the most recently localized field relative target position. Returns {@code null} if no frame has been
+     * localized
+     *
+     * @return target position on the field
+     */
+    public Translation2d getLatestTargetPosition() {
+        return targetPositionMap.getLatestPosition();
+    }
+
+    /**
+     * Get the field relative target position at a specific time, interpolating between frames. Returns {@code null}
+     * if no frame has been localized
+     *
+     * @param timestamp timestamp to reference
+     * @return target position on the field
+     */
+    public Translation2d getTargetPositionFromTimestamp(double timestamp) {
+        return targetPositionMap.getPositionFromTimestamp(timestamp);
+    }
+
+    /**
+     * Get the capture timestamp of the most recently localized frame
+     *
+     * @return timestamp of the latest target position
+     */
+    public double getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    /**
+     * Get the time-indexed map of localized target positions
+     *
+     * @return target position map
+     */
+    public BoundTranslationMap getTargetPositionMap() {
+        return targetPositionMap;
+    }
+}
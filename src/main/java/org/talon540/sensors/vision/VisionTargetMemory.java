@@ -0,0 +1,151 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+
+/**
+ * Remembers the last field relative position of a target from a {@link VisionTargetLocalizer}. While the target is out
+ * of view, the yaw and distance to it are predicted from the robot's current position so a turret or drivetrain can
+ * stay pointed near it. A confidence value decays over time since the target was last seen.
+ */
+public class VisionTargetMemory {
+    private final VisionTargetLocalizer localizer;
+    private final UnboundRobotPositionMap robotPositionMap;
+    private final double confidenceHalfLifeSeconds;
+
+    private Translation2d targetPosition;
+    private double lastSeenTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a target memory
+     *
+     * @param localizer localizer providing field relative target positions
+     * @param robotPositionMap map of the robot's position over time, used to find the robot's current position
+     * @param confidenceHalfLifeSeconds time in seconds for the confidence to drop by half after the target is lost
+     */
+    public VisionTargetMemory(
+            @NotNull VisionTargetLocalizer localizer, @NotNull UnboundRobotPositionMap robotPositionMap,
+            double confidenceHalfLifeSeconds
+    ) {
+        if (confidenceHalfLifeSeconds <= 0)
+            throw new IllegalArgumentException("Confidence half life must be greater than 0");
+
+        this.localizer = localizer;
+        this.robotPositionMap = robotPositionMap;
+        this.confidenceHalfLifeSeconds = confidenceHalfLifeSeconds;
+    }
+
+    /**
+     * Create a target memory whose confidence halves every second
+     *
+     * @param localizer localizer providing field relative target positions
+     * @param robotPositionMap map of the robot's position over time, used to find the robot's current position
+     */
+    public VisionTargetMemory(
+            @NotNull VisionTargetLocalizer localizer, @NotNull UnboundRobotPositionMap robotPositionMap
+    ) {
+        this(
+                localizer,
+                robotPositionMap,
+                1
+        );
+    }
+
+    /**
+     * Store the latest target position from the localizer if it is newer than the remembered one. Should be called
+     * once per loop after the localizer has been updated
+     */
+    public void update() {
+        Translation2d latest = localizer.getLatestTargetPosition();
+        if (latest != null && localizer.getLatestTimestamp() > lastSeenTimestamp) {
+            targetPosition = latest;
+            lastSeenTimestamp = localizer.getLatestTimestamp();
+        }
+    }
+
+    /**
+     * Whether a target position has been remembered
+     *
+     * @return if there is a remembered target
+     */
+    public boolean hasTarget() {
+        return targetPosition != null;
+    }
+
+    /**
+     * Get the remembered field relative position of the target. Returns {@code null} if the target has not been seen
+     *
+     * @return remembered target position
+     */
+    public Translation2d getTargetPosition() {
+        return targetPosition;
+    }
+
+    /**
+     * Get the timestamp of the frame the target was last seen in
+     *
+     * @return last seen timestamp
+     */
+    public double getLastSeenTimestamp() {
+        return lastSeenTimestamp;
+    }
+
+    /**
+     * Get how confident the memory is in the target's position, which halves every half life since the target was
+     * last seen
+     *
+     * @return confidence [0, 1]
+     */
+    public double getConfidence() {
+        if (targetPosition == null)
+            return 0;
+
+        double ageSeconds = Math.max(Timer.getFPGATimestamp() - lastSeenTimestamp, 0);
+        return Math.pow(0.5, ageSeconds / confidenceHalfLifeSeconds);
+    }
+
+    /**
+     * Get the predicted yaw of the target from the center of the robot in degrees, using the robot's current position.
+     * Positive is right, matching {@link VisionState#getYaw()}. Returns {@code null} if the target has not been seen or
+     * the robot's position is unknown
+     *
+     * @return predicted target yaw
+     */
+    public Double getPredictedYaw() {
+        Pose2d robotPose = robotPositionMap.getLatestPosition();
+        if (targetPosition == null || robotPose == null)
+            return null;
+
+        double fieldAngle = Math.atan2(
+                targetPosition.getY() - robotPose.getY(),
+                targetPosition.getX() - robotPose.getX()
+        );
+        return -Math.toDegrees(MathUtil.angleModulus(fieldAngle - robotPose.getRotation().getRadians()));
+    }
+
+    /**
+     * Get the predicted distance from the center of the robot to the target in meters, using the robot's current
+     * position. Returns {@code null} if the target has not been seen or the robot's position is unknown
+     *
+     * @return predicted target distance
+     */
+    public Double getPredictedDistance() {
+        Pose2d robotPose = robotPositionMap.getLatestPosition();
+        if (targetPosition == null || robotPose == null)
+            return null;
+
+        return robotPose.getTranslation().getDistance(targetPosition);
+    }
+
+    /**
+     * Forget the remembered target
+     */
+    public void clear() {
+        targetPosition = null;
+        lastSeenTimestamp = Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,406 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the identity of targets across frames so that the target being aimed at doesn't jump between objects. Targets
+ * from each frame are matched to existing tracks by gated nearest neighbor on yaw and pitch, each track is smoothed
+ * with an alpha-beta filter, and tracks that haven't been seen for a while are dropped.
+ * <p>
+ * Every candidate pair within the gate is sorted once by distance and pairs are then taken closest first, so an update
+ * costs O(T * N * log(T * N)) for T tracks and N targets. All tracks and the candidate array are allocated up front, so
+ * the tracker can run on every frame without creating garbage.
+ */
+public class VisionTargetTracker {
+    private final Track[] tracks;
+    private final boolean[] targetAssigned;
+    // Candidate track and target pairs, packed as the float bits of the distance above the track and target index
+    private final long[] candidates;
+    private VisionTargetBuffer lastFrame;
+    private final double gateDegrees, alpha, beta, maxAgeSeconds;
+
+    private int nextTrackId = 0;
+    private int primaryTrackId = -1;
+    private double lastFrameTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a tracker
+     *
+     * @param maxTracks max number of targets tracked at once
+     * @param maxTargets max number of targets read from each frame
+     * @param gateDegrees max angular distance in degrees between a track and a target for them to be matched
+     * @param alpha position gain of the alpha-beta filter (0, 1]
+     * @param beta rate gain of the alpha-beta filter [0, 2)
+     * @param maxAgeSeconds time in seconds a track is kept after it was last seen
+     */
+    public VisionTargetTracker(
+            int maxTracks, int maxTargets, double gateDegrees, double alpha, double beta, double maxAgeSeconds
+    ) {
+        if (!(0 < maxTracks && maxTracks <= 0xFFFF) || !(0 < maxTargets && maxTargets <= 0xFFFF))
+            throw new IllegalArgumentException("Max tracks and targets must be within 1-" + 0xFFFF);
+        if (!(0 < alpha && alpha <= 1) || !(0 <= beta && beta < 2))
+            throw new IllegalArgumentException("Alpha must be within (0, 1] and beta within [0, 2)");
+
+        this.tracks = new Track[maxTracks];
+        for (int i = 0; i < maxTracks; i++) {
+            this.tracks[i] = new Track();
+        }
+
+        this.targetAssigned = new boolean[maxTargets];
+        this.candidates = new long[maxTracks * maxTargets];
+        this.lastFrame = new VisionTargetBuffer(maxTargets);
+        this.gateDegrees = gateDegrees;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * Create a tracker for up to 8 targets with a 5 degree gate, that drops tracks after 0.5 seconds
+     *
+     * @param maxTargets max number of targets read from each frame
+     */
+    public VisionTargetTracker(int maxTargets) {
+        this(
+                8,
+                maxTargets,
+                5,
+                0.5,
+                0.1,
+                0.5
+        );
+    }
+
+    /**
+     * Update the tracks with a new frame. Frames with the same timestamp or the same targets as the last frame are
+     * ignored, since some vision systems give a frame a new timestamp each time it is read. An empty buffer still ages
+     * out tracks that haven't been seen
+     *
+     * @param buffer targets from a single frame
+     */
+    public void update(@NotNull VisionTargetBuffer buffer) {
+        if (buffer.isEmpty()) {
+            lastFrame.clear();
+            removeStaleTracks(Timer.getFPGATimestamp());
+            return;
+        }
+
+        double timestamp = buffer.getStateTimestamp();
+        if (timestamp == lastFrameTimestamp || lastFrame.isSameFrame(buffer))
+            return;
+
+        if (lastFrame.getCapacity() < buffer.getCapacity())
+            lastFrame = new VisionTargetBuffer(buffer.getCapacity());
+        lastFrameTimestamp = timestamp;
+        lastFrame.copyFrom(buffer);
+
+        int targetCount = Math.min(buffer.size(), targetAssigned.length);
+
+        // Predict every track forward to the time of the frame
+        for (Track track : tracks) {
+            track.matched = false;
+            if (track.active)
+                track.predict(timestamp);
+        }
+        for (int i = 0; i < targetCount; i++) {
+            targetAssigned[i] = false;
+        }
+
+        // Find every track and target pair within the gate
+        double gateSquared = gateDegrees * gateDegrees;
+        int candidateCount = 0;
+
+        for (int t = 0; t < tracks.length; t++) {
+            Track track = tracks[t];
+            if (!track.active)
+                continue;
+
+            for (int i = 0; i < targetCount; i++) {
+                VisionTargetBuffer.Target target = buffer.get(i);
+                if (track.fiducialId != -1 && target.getFiducialId() != -1 && track.fiducialId != target.getFiducialId())
+                    continue;
+
+                double deltaYaw = target.getYaw() - track.predictedYaw;
+                double deltaPitch = target.getPitch() - track.predictedPitch;
+                double distance = deltaYaw * deltaYaw + deltaPitch * deltaPitch;
+
+                // Bits of a non-negative float sort in the same order as its value
+                if (distance <= gateSquared)
+                    candidates[candidateCount++] = ((long) Float.floatToIntBits((float) distance) << 32) | ((long) t << 16) | i;
+            }
+        }
+
+        // Take pairs closest first, skipping any whose track or target was already matched
+        Arrays.sort(candidates, 0, candidateCount);
+        for (int c = 0; c < candidateCount; c++) {
+            int t = (int) (candidates[c] >>> 16) & 0xFFFF;
+            int i = (int) candidates[c] & 0xFFFF;
+
+            if (tracks[t].matched || targetAssigned[i])
+                continue;
+
+            tracks[t].correct(buffer.get(i), timestamp, alpha, beta);
+            targetAssigned[i] = true;
+        }
+
+        // Start new tracks for targets that didn't match
+        for (int i = 0; i < targetCount; i++) {
+            if (targetAssigned[i])
+                continue;
+
+            Track free = findFreeTrack();
+            if (free == null)
+                break;
+
+            free.start(nextTrackId++, buffer.get(i), timestamp);
+        }
+
+        removeStaleTracks(timestamp);
+    }
+
+    private Track findFreeTrack() {
+        for (Track track : tracks) {
+            if (!track.active)
+                return track;
+        }
+        return null;
+    }
+
+    private void removeStaleTracks(double timestamp) {
+        for (Track track : tracks) {
+            if (track.active && timestamp - track.lastSeenTimestamp > maxAgeSeconds)
+                track.active = false;
+        }
+    }
+
+    /**
+     * Get the track to aim at. The same track is returned for as long as it is alive; when it is dropped the track seen
+     * the most times is chosen. Returns {@code null} if there are no tracks
+     *
+     * @return primary track
+     */
+    public Track getPrimaryTrack() {
+        Track primary = getTrackById(primaryTrackId);
+        if (primary != null)
+            return primary;
+
+        for (Track track : tracks) {
+            if (track.active && (primary == null || track.hits > primary.hits))
+                primary = track;
+        }
+
+        primaryTrackId = primary == null ? -1 : primary.id;
+        return primary;
+    }
+
+    /**
+     * Get a live track by its id. Returns {@code null} if the track doesn't exist or has been dropped
+     *
+     * @param id id of the track
+     * @return track with that id
+     */
+    public Track getTrackById(int id) {
+        if (id < 0)
+            return null;
+
+        for (Track track : tracks) {
+            if (track.active && track.id == id)
+                return track;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of live tracks
+     *
+     * @return track count
+     */
+    public int getTrackCount() {
+        int count = 0;
+        for (Track track : tracks) {
+            if (track.active)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the max number of tracks
+     *
+     * @return track capacity
+     */
+    public int getMaxTracks() {
+        return tracks.length;
+    }
+
+    /**
+     * Get the track in a slot. Slots are reused, so check {@link Track#isActive()} before using the track
+     *
+     * @param slot slot index [0, max tracks)
+     * @return track in that slot
+     */
+    public Track getTrackSlot(int slot) {
+        return tracks[slot];
+    }
+
+    /**
+     * Drop every track
+     */
+    public void reset() {
+        for (Track track : tracks) {
+            track.active = false;
+        }
+        primaryTrackId = -1;
+        lastFrameTimestamp = Double.NEGATIVE_INFINITY;
+        lastFrame.clear();
+    }
+
+    /**
+     * A target followed across frames
+     */
+    public static class Track {
+        private int id, fiducialId, hits;
+        private boolean active, matched;
+        private double yaw, pitch, yawRate, pitchRate, area;
+        private double predictedYaw, predictedPitch;
+        private double lastUpdateTimestamp, lastSeenTimestamp;
+
+        private Track() {}
+
+        private void start(int id, VisionTargetBuffer.Target target, double timestamp) {
+            this.id = id;
+            this.fiducialId = target.getFiducialId();
+            this.hits = 1;
+            this.active = true;
+            this.matched = true;
+            this.yaw = target.getYaw();
+            this.pitch = target.getPitch();
+            this.yawRate = 0;
+            this.pitchRate = 0;
+            this.area = target.getArea();
+            this.lastUpdateTimestamp = timestamp;
+            this.lastSeenTimestamp = timestamp;
+        }
+
+        private void predict(double timestamp) {
+            double dt = timestamp - lastUpdateTimestamp;
+            predictedYaw = yaw + yawRate * dt;
+            predictedPitch = pitch + pitchRate * dt;
+        }
+
+        private void correct(VisionTargetBuffer.Target target, double timestamp, double alpha, double beta) {
+            double dt = timestamp - lastUpdateTimestamp;
+            double yawResidual = target.getYaw() - predictedYaw;
+            double pitchResidual = target.getPitch() - predictedPitch;
+
+            yaw = predictedYaw + alpha * yawResidual;
+            pitch = predictedPitch + alpha * pitchResidual;
+            if (dt > 0) {
+                yawRate += beta * yawResidual / dt;
+                pitchRate += beta * pitchResidual / dt;
+            }
+
+            area = target.getArea();
+            if (fiducialId == -1)
+                fiducialId = target.getFiducialId();
+
+            hits++;
+            matched = true;
+            lastUpdateTimestamp = timestamp;
+            lastSeenTimestamp = timestamp;
+        }
+
+        /**
+         * Whether the track is alive
+         *
+         * @return if the track is active
+         */
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Get the id of the track. Ids are unique for the life of the tracker
+         *
+         * @return track id
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Get the smoothed yaw of the track in degrees
+         *
+         * @return track yaw
+         */
+        public double getYaw() {
+            return yaw;
+        }
+
+        /**
+         * Get the smoothed pitch of the track in degrees
+         *
+         * @return track pitch
+         */
+        public double getPitch() {
+            return pitch;
+        }
+
+        /**
+         * Get the estimated rate of change of the track's yaw in degrees per second
+         *
+         * @return yaw rate
+         */
+        public double getYawRate() {
+            return yawRate;
+        }
+
+        /**
+         * Get the estimated rate of change of the track's pitch in degrees per second
+         *
+         * @return pitch rate
+         */
+        public double getPitchRate() {
+            return pitchRate;
+        }
+
+        /**
+         * Get the area of the target from the last frame it was seen in
+         *
+         * @return track area
+         */
+        public double getArea() {
+            return area;
+        }
+
+        /**
+         * Get the fiducial id of the track. Returns -1 if the target has no id
+         *
+         * @return fiducial id
+         */
+        public int getFiducialId() {
+            return fiducialId;
+        }
+
+        /**
+         * Get the number of frames the track has been seen in
+         *
+         * @return hit count
+         */
+        public int getHits() {
+            return hits;
+        }
+
+        /**
+         * Get the timestamp of the last frame the track was seen in
+         *
+         * @return last seen timestamp
+         */
+        public double getLastSeenTimestamp() {
+            return lastSeenTimestamp;
+        }
+    }
+}
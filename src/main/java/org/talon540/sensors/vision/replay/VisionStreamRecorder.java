@@ -0,0 +1,122 @@
+package org.talon540.sensors.vision.replay;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Captures live updates from vision camera tables in NetworkTables into a {@link VisionStreamRecording}. By default the
+ * Limelight, PhotonVision and TalonTracking tables are recorded.
+ */
+public class VisionStreamRecorder implements AutoCloseable {
+    private final NetworkTableInstance instance;
+    private final String[] prefixes;
+    private final int[] listenerHandles;
+    private final VisionStreamRecording recording = new VisionStreamRecording();
+
+    private long startTimeNanos;
+    private boolean running;
+
+    /**
+     * Create a recorder for specific tables
+     *
+     * @param instance NetworkTables instance to record from
+     * @param prefixes key prefixes of the tables to record, i.e. {@code /limelight}
+     */
+    public VisionStreamRecorder(@NotNull NetworkTableInstance instance, @NotNull String... prefixes) {
+        this.instance = instance;
+        this.prefixes = prefixes;
+        this.listenerHandles = new int[prefixes.length];
+    }
+
+    /**
+     * Create a recorder for the Limelight, PhotonVision and TalonTracking tables on the default instance
+     */
+    public VisionStreamRecorder() {
+        this(
+                NetworkTableInstance.getDefault(),
+                "/limelight",
+                "/photonvision",
+                "/TalonTracking"
+        );
+    }
+
+    /**
+     * Start recording. The current value of every entry is recorded at time 0
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+
+        recording.clear();
+        startTimeNanos = System.nanoTime();
+
+        for (int i = 0; i < prefixes.length; i++) {
+            listenerHandles[i] = instance.addEntryListener(
+                    prefixes[i],
+                    event -> recording.addRecord(
+                            getElapsedSeconds(),
+                            event.name,
+                            event.value
+                    ),
+                    EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate
+            );
+        }
+
+        running = true;
+    }
+
+    /**
+     * Stop recording
+     */
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        for (int handle : listenerHandles) {
+            instance.removeEntryListener(handle);
+        }
+
+        running = false;
+    }
+
+    /**
+     * Whether the recorder is currently recording
+     *
+     * @return recording status
+     */
+    public synchronized boolean isRecording() {
+        return running;
+    }
+
+    /**
+     * Get the recording captured so far
+     *
+     * @return captured recording
+     */
+    public VisionStreamRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Write the recording captured so far to a file
+     *
+     * @param path file to write to
+     * @throws IOException if the file couldn't be written
+     */
+    public void save(@NotNull Path path) throws IOException {
+        recording.save(path);
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - startTimeNanos) / 1e9;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+}
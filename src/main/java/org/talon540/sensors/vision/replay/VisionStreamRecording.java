@@ -0,0 +1,373 @@
+package org.talon540.sensors.vision.replay;
+
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.jetbrains.annotations.NotNull;
+import org.talon540.sensors.vision.TalonTracking.TalonTrackingFrame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A time ordered list of NetworkTables updates from vision cameras. Recordings can be captured from live cameras with a
+ * {@link VisionStreamRecorder}, built from synthetic frames, saved to and loaded from a file, and played back with a
+ * {@link VisionStreamReplayer}.
+ */
+public class VisionStreamRecording {
+    private static final int kMagic = 0x54564953; // "TVIS"
+    private static final int kVersion = 1;
+
+    private final List<Record> records = new ArrayList<>();
+
+    /**
+     * Add an update to the recording. Records must be added in time order
+     *
+     * @param timeSeconds time of the update in seconds since the start of the recording
+     * @param key full NetworkTables key of the entry, i.e. {@code /limelight/tx}
+     * @param value value of the entry
+     */
+    public synchronized void addRecord(double timeSeconds, @NotNull String key, @NotNull NetworkTableValue value) {
+        if (!records.isEmpty() && timeSeconds < records.get(records.size() - 1).timeSeconds)
+            throw new IllegalArgumentException("Records must be added in time order");
+
+        records.add(new Record(
+                timeSeconds,
+                key,
+                value
+        ));
+    }
+
+    /**
+     * Add a synthetic Limelight frame to the recording, including the index of the pipeline that produced it
+     *
+     * @param timeSeconds time of the frame in seconds since the start of the recording
+     * @param tableName name of the Limelight table, usually {@code limelight}
+     * @param pipeline index of the running pipeline, published as {@code getpipe}
+     * @param targetViewed whether a target is viewed
+     * @param tx horizontal offset of the target in degrees
+     * @param ty vertical offset of the target in degrees
+     * @param ts skew of the target
+     * @param ta area of the target
+     * @param tl latency of the pipeline in milliseconds
+     */
+    public void addLimelightFrame(
+            double timeSeconds, @NotNull String tableName, int pipeline, boolean targetViewed, double tx, double ty,
+            double ts, double ta, double tl
+    ) {
+        addRecord(
+                timeSeconds,
+                "/" + tableName + "/getpipe",
+                NetworkTableValue.makeDouble(pipeline)
+        );
+        addLimelightFrame(
+                timeSeconds,
+                tableName,
+                targetViewed,
+                tx,
+                ty,
+                ts,
+                ta,
+                tl
+        );
+    }
+
+    /**
+     * Add a synthetic Limelight frame to the recording without the index of the running pipeline, like a Limelight on
+     * firmware that doesn't publish {@code getpipe}
+     *
+     * @param timeSeconds time of the frame in seconds since the start of the recording
+     * @param tableName name of the Limelight table, usually {@code limelight}
+     * @param targetViewed whether a target is viewed
+     * @param tx horizontal offset of the target in degrees
+     * @param ty vertical offset of the target in degrees
+     * @param ts skew of the target
+     * @param ta area of the target
+     * @param tl latency of the pipeline in milliseconds
+     */
+    public void addLimelightFrame(
+            double timeSeconds, @NotNull String tableName, boolean targetViewed, double tx, double ty, double ts,
+            double ta, double tl
+    ) {
+        String prefix = "/" + tableName + "/";
+        addRecord(
+                timeSeconds,
+                prefix + "tx",
+                NetworkTableValue.makeDouble(tx)
+        );
+        addRecord(
+                timeSeconds,
+                prefix + "ty",
+                NetworkTableValue.makeDouble(ty)
+        );
+        addRecord(
+                timeSeconds,
+                prefix + "ts",
+                NetworkTableValue.makeDouble(ts)
+        );
+        addRecord(
+                timeSeconds,
+                prefix + "ta",
+                NetworkTableValue.makeDouble(ta)
+        );
+        addRecord(
+                timeSeconds,
+                prefix + "tl",
+                NetworkTableValue.makeDouble(tl)
+        );
+        addRecord(
+                timeSeconds,
+                prefix + "tv",
+                NetworkTableValue.makeDouble(targetViewed ? 1 : 0)
+        );
+    }
+
+    /**
+     * Add a synthetic TalonTracking frame to the recording
+     *
+     * @param timeSeconds time of the frame in seconds since the start of the recording
+     * @param frame frame to publish
+     */
+    public void addTalonTrackingFrame(double timeSeconds, @NotNull TalonTrackingFrame frame) {
+        addRecord(
+                timeSeconds,
+                "/TalonTracking/frame",
+                NetworkTableValue.makeDoubleArray(frame.toPacked())
+        );
+    }
+
+    /**
+     * Add a serialized PhotonVision pipeline result to the recording
+     *
+     * @param timeSeconds time of the frame in seconds since the start of the recording
+     * @param cameraName name of the camera sub-table
+     * @param rawBytes serialized pipeline result
+     */
+    public void addPhotonVisionFrame(double timeSeconds, @NotNull String cameraName, @NotNull byte[] rawBytes) {
+        addRecord(
+                timeSeconds,
+                "/photonvision/" + cameraName + "/rawBytes",
+                NetworkTableValue.makeRaw(rawBytes)
+        );
+    }
+
+    /**
+     * Get the number of records in the recording
+     *
+     * @return record count
+     */
+    public synchronized int size() {
+        return records.size();
+    }
+
+    /**
+     * Get the length of the recording in seconds
+     *
+     * @return time of the last record
+     */
+    public synchronized double getDurationSeconds() {
+        return records.isEmpty() ? 0 : records.get(records.size() - 1).timeSeconds;
+    }
+
+    /**
+     * Get a record from the recording
+     *
+     * @param index index of the record
+     * @return record at that index
+     */
+    public synchronized Record get(int index) {
+        return records.get(index);
+    }
+
+    /**
+     * Remove all records from the recording
+     */
+    public synchronized void clear() {
+        records.clear();
+    }
+
+    /**
+     * Write the recording to a file
+     *
+     * @param path file to write to
+     * @throws IOException if the file couldn't be written
+     */
+    public synchronized void save(@NotNull Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(kMagic);
+            out.writeInt(kVersion);
+            out.writeInt(records.size());
+
+            for (Record record : records) {
+                out.writeDouble(record.timeSeconds);
+                out.writeUTF(record.key);
+                writeValue(out, record.value);
+            }
+        }
+    }
+
+    /**
+     * Read a recording from a file
+     *
+     * @param path file to read from
+     * @return loaded recording
+     * @throws IOException if the file couldn't be read or isn't a recording
+     */
+    public static VisionStreamRecording load(@NotNull Path path) throws IOException {
+        VisionStreamRecording recording = new VisionStreamRecording();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != kMagic)
+                throw new IOException("File is not a vision stream recording");
+            if (in.readInt() != kVersion)
+                throw new IOException("Unsupported vision stream recording version");
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                double timeSeconds = in.readDouble();
+                String key = in.readUTF();
+                recording.addRecord(
+                        timeSeconds,
+                        key,
+                        readValue(in)
+                );
+            }
+        }
+
+        return recording;
+    }
+
+    private static void writeValue(DataOutputStream out, NetworkTableValue value) throws IOException {
+        out.writeUTF(value.getType().name());
+
+        switch (value.getType()) {
+            case kBoolean:
+                out.writeBoolean(value.getBoolean());
+                break;
+            case kDouble:
+                out.writeDouble(value.getDouble());
+                break;
+            case kString:
+                out.writeUTF(value.getString());
+                break;
+            case kRaw:
+                byte[] raw = value.getRaw();
+                out.writeInt(raw.length);
+                out.write(raw);
+                break;
+            case kBooleanArray:
+                boolean[] booleans = value.getBooleanArray();
+                out.writeInt(booleans.length);
+                for (boolean val : booleans) {
+                    out.writeBoolean(val);
+                }
+                break;
+            case kDoubleArray:
+                double[] doubles = value.getDoubleArray();
+                out.writeInt(doubles.length);
+                for (double val : doubles) {
+                    out.writeDouble(val);
+                }
+                break;
+            case kStringArray:
+                String[] strings = value.getStringArray();
+                out.writeInt(strings.length);
+                for (String val : strings) {
+                    out.writeUTF(val);
+                }
+                break;
+            default:
+                throw new IOException("Unsupported NetworkTables type " + value.getType());
+        }
+    }
+
+    private static NetworkTableValue readValue(DataInputStream in) throws IOException {
+        NetworkTableType type;
+        try {
+            type = NetworkTableType.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown NetworkTables type", e);
+        }
+
+        switch (type) {
+            case kBoolean:
+                return NetworkTableValue.makeBoolean(in.readBoolean());
+            case kDouble:
+                return NetworkTableValue.makeDouble(in.readDouble());
+            case kString:
+                return NetworkTableValue.makeString(in.readUTF());
+            case kRaw:
+                byte[] raw = new byte[in.readInt()];
+                in.readFully(raw);
+                return NetworkTableValue.makeRaw(raw);
+            case kBooleanArray:
+                boolean[] booleans = new boolean[in.readInt()];
+                for (int i = 0; i < booleans.length; i++) {
+                    booleans[i] = in.readBoolean();
+                }
+                return NetworkTableValue.makeBooleanArray(booleans);
+            case kDoubleArray:
+                double[] doubles = new double[in.readInt()];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = in.readDouble();
+                }
+                return NetworkTableValue.makeDoubleArray(doubles);
+            case kStringArray:
+                String[] strings = new String[in.readInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    strings[i] = in.readUTF();
+                }
+                return NetworkTableValue.makeStringArray(strings);
+            default:
+                throw new IOException("Unsupported NetworkTables type " + type);
+        }
+    }
+
+    /**
+     * A single NetworkTables update within a recording
+     */
+    public static final class Record {
+        private final double timeSeconds;
+        private final String key;
+        private final NetworkTableValue value;
+
+        private Record(double timeSeconds, String key, NetworkTableValue value) {
+            this.timeSeconds = timeSeconds;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Get the time of the update in seconds since the start of the recording
+         *
+         * @return record time
+         */
+        public double getTimeSeconds() {
+            return timeSeconds;
+        }
+
+        /**
+         * Get the full NetworkTables key of the entry
+         *
+         * @return entry key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Get the value of the entry
+         *
+         * @return entry value
+         */
+        public NetworkTableValue getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.talon540.sensors.vision.replay;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Plays a {@link VisionStreamRecording} back into NetworkTables so the vision classes can be run without cameras. The
+ * recording can be replayed in real time, at an accelerated rate, or stepped manually for deterministic tests.
+ */
+public class VisionStreamReplayer {
+    private final NetworkTableInstance instance;
+    private final BiConsumer<String, NetworkTableValue> sink;
+    private final VisionStreamRecording recording;
+
+    private int nextRecord = 0;
+
+    /**
+     * Create a replayer that writes to a specific instance
+     *
+     * @param instance NetworkTables instance to write to
+     * @param recording recording to play back
+     */
+    public VisionStreamReplayer(@NotNull NetworkTableInstance instance, @NotNull VisionStreamRecording recording) {
+        this.instance = instance;
+        this.sink = (key, value) -> instance.getEntry(key).setValue(value);
+        this.recording = recording;
+    }
+
+    /**
+     * Create a replayer that passes each record to a consumer instead of NetworkTables, such as a log or a test
+     *
+     * @param sink consumer of each record's key and value
+     * @param recording recording to play back
+     */
+    public VisionStreamReplayer(
+            @NotNull BiConsumer<String, NetworkTableValue> sink, @NotNull VisionStreamRecording recording
+    ) {
+        this.instance = null;
+        this.sink = sink;
+        this.recording = recording;
+    }
+
+    /**
+     * Create a replayer that writes to the default instance, which is the instance read by the vision classes
+     *
+     * @param recording recording to play back
+     */
+    public VisionStreamReplayer(@NotNull VisionStreamRecording recording) {
+        this(
+                NetworkTableInstance.getDefault(),
+                recording
+        );
+    }
+
+    /**
+     * Start the default NetworkTables instance in local mode so recordings can be replayed without a robot or server
+     *
+     * @return the default instance
+     */
+    public static NetworkTableInstance startLocalInstance() {
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        instance.startLocal();
+        return instance;
+    }
+
+    /**
+     * Write every record up to and including a time in the recording. Used to step through a recording in sync with
+     * simulated time
+     *
+     * @param timeSeconds time in the recording in seconds
+     * @return number of records written
+     */
+    public int replayUntil(double timeSeconds) {
+        int written = 0;
+
+        while (nextRecord < recording.size() && recording.get(nextRecord).getTimeSeconds() <= timeSeconds) {
+            VisionStreamRecording.Record record = recording.get(nextRecord++);
+            sink.accept(
+                    record.getKey(),
+                    record.getValue()
+            );
+            written++;
+        }
+
+        if (written > 0 && instance != null)
+            instance.flush();
+
+        return written;
+    }
+
+    /**
+     * Replay the rest of the recording on the calling thread, blocking until it has finished
+     *
+     * @param speed playback rate, where 1 is real time and 2 is twice as fast. Values of 0 or less replay as fast as
+     * possible
+     * @return number of records written
+     * @throws InterruptedException if the thread is interrupted while waiting for the next record
+     */
+    public int replay(double speed) throws InterruptedException {
+        if (speed <= 0)
+            return replayUntil(Double.POSITIVE_INFINITY);
+
+        double offsetSeconds = nextRecord < recording.size() ? recording.get(nextRecord).getTimeSeconds() : 0;
+        long startTimeNanos = System.nanoTime();
+        int written = 0;
+
+        while (!isFinished()) {
+            double nextTimeSeconds = recording.get(nextRecord).getTimeSeconds();
+            long waitNanos = startTimeNanos + (long) ((nextTimeSeconds - offsetSeconds) / speed * 1e9) - System.nanoTime();
+
+            if (waitNanos > 0)
+                Thread.sleep(
+                        waitNanos / 1_000_000,
+                        (int) (waitNanos % 1_000_000)
+                );
+
+            written += replayUntil(nextTimeSeconds);
+        }
+
+        return written;
+    }
+
+    /**
+     * Whether every record has been written
+     *
+     * @return if the replay has finished
+     */
+    public boolean isFinished() {
+        return nextRecord >= recording.size();
+    }
+
+    /**
+     * Restart the replay from the beginning of the recording
+     */
+    public void reset() {
+        nextRecord = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package org.talon540.telemetry;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link DoubleSupplier} that only calls its source at most once per period and returns the cached value in between.
+ * The primitive version of {@link RateLimitedSupplier}.
+ */
+public class RateLimitedDoubleSupplier implements DoubleSupplier {
+    private final DoubleSupplier source;
+    private final double periodSeconds;
+
+    private double value;
+    private double lastUpdateTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a rate limited supplier
+     *
+     * @param source supplier to cache
+     * @param periodSeconds minimum time between calls to the source in seconds
+     */
+    public RateLimitedDoubleSupplier(@NotNull DoubleSupplier source, double periodSeconds) {
+        if (periodSeconds < 0)
+            throw new IllegalArgumentException("Period cannot be negative");
+
+        this.source = source;
+        this.periodSeconds = periodSeconds;
+    }
+
+    /**
+     * Create a rate limited supplier that updates at most every 100ms
+     *
+     * @param source supplier to cache
+     */
+    public RateLimitedDoubleSupplier(@NotNull DoubleSupplier source) {
+        this(
+                source,
+                RateLimitedSupplier.kDefaultPeriodSeconds
+        );
+    }
+
+    @Override
+    public double getAsDouble() {
+        double timestamp = Timer.getFPGATimestamp();
+        if (timestamp - lastUpdateTimestamp >= periodSeconds) {
+            value = source.getAsDouble();
+            lastUpdateTimestamp = timestamp;
+        }
+
+        return value;
+    }
+
+    /**
+     * Force the next call to {@link #getAsDouble()} to update from the source
+     */
+    public void invalidate() {
+        lastUpdateTimestamp = Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,70 @@
+package org.talon540.telemetry;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link Supplier} that only calls its source at most once per period and returns the cached value in between. Used
+ * to share an expensive getter between several telemetry properties and to limit how often it is run. Since the cached
+ * value doesn't change between periods, NetworkTables only publishes it when the source's value actually changes.
+ *
+ * @param <T> type of the supplied value
+ */
+public class RateLimitedSupplier<T> implements Supplier<T> {
+    /**
+     * Default period between updates in seconds
+     */
+    public static final double kDefaultPeriodSeconds = 0.1;
+
+    private final Supplier<T> source;
+    private final double periodSeconds;
+
+    private T value;
+    private double lastUpdateTimestamp = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a rate limited supplier
+     *
+     * @param source supplier to cache
+     * @param periodSeconds minimum time between calls to the source in seconds
+     */
+    public RateLimitedSupplier(@NotNull Supplier<T> source, double periodSeconds) {
+        if (periodSeconds < 0)
+            throw new IllegalArgumentException("Period cannot be negative");
+
+        this.source = source;
+        this.periodSeconds = periodSeconds;
+    }
+
+    /**
+     * Create a rate limited supplier that updates at most every 100ms
+     *
+     * @param source supplier to cache
+     */
+    public RateLimitedSupplier(@NotNull Supplier<T> source) {
+        this(
+                source,
+                kDefaultPeriodSeconds
+        );
+    }
+
+    @Override
+    public T get() {
+        double timestamp = Timer.getFPGATimestamp();
+        if (timestamp - lastUpdateTimestamp >= periodSeconds) {
+            value = source.get();
+            lastUpdateTimestamp = timestamp;
+        }
+
+        return value;
+    }
+
+    /**
+     * Force the next call to {@link #get()} to update from the source
+     */
+    public void invalidate() {
+        lastUpdateTimestamp = Double.NEGATIVE_INFINITY;
+    }
+}
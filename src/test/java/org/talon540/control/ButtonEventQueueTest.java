@@ -0,0 +1,118 @@
+package org.talon540.control;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ButtonEventQueueTest {
+    @Test
+    void stateOnlyChangesWhenPolled() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            boolean[] state = new boolean[1];
+            ButtonEventQueue.Input input = queue.addInput(() -> state[0]);
+
+            LoopClock.tick();
+            assertFalse(input.get());
+
+            // The source changed, but bindings don't see it until the next poll
+            state[0] = true;
+            assertFalse(input.get());
+
+            LoopClock.tick();
+            assertTrue(input.get());
+        }
+    }
+
+    @Test
+    void pollsOncePerCycle() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            boolean[] state = new boolean[1];
+            queue.addInput(() -> state[0]);
+
+            state[0] = true;
+            LoopClock.tick();
+
+            // The queue already polled itself on tick, so the change isn't applied twice
+            assertEquals(0, queue.poll());
+        }
+    }
+
+    @Test
+    void readsSuppliersOncePerPeriod() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            int[] reads = new int[1];
+            long[] readCycles = new long[1];
+            queue.addInput(() -> {
+                reads[0]++;
+                readCycles[0] = LoopClock.getCycle();
+                return false;
+            }, 4, 1);
+
+            // One read when the input is added
+            assertEquals(1, reads[0]);
+
+            for (int i = 0; i < 12; i++) {
+                LoopClock.tick();
+            }
+
+            assertEquals(4, reads[0]);
+            assertEquals(1, Math.floorMod(readCycles[0], 4));
+        }
+    }
+
+    @Test
+    void polledButtonKeepsItsPeriodAndPhase() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            long[] readCycles = new long[1];
+            ButtonEventQueue.Input input = queue.addInput(PolledButton.of(() -> {
+                readCycles[0] = LoopClock.getCycle();
+                return true;
+            }, 5, 3));
+
+            for (int i = 0; i < 10; i++) {
+                LoopClock.tick();
+            }
+
+            assertTrue(input.get());
+            assertEquals(3, Math.floorMod(readCycles[0], 5));
+        }
+    }
+
+    @Test
+    void queueHoldsAnEventForEveryInput() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            boolean[] state = new boolean[1];
+            ButtonEventQueue.Input[] inputs = new ButtonEventQueue.Input[100];
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = queue.addInput(() -> state[0]);
+            }
+
+            state[0] = true;
+            LoopClock.tick();
+
+            for (ButtonEventQueue.Input input : inputs) {
+                assertTrue(input.get());
+            }
+        }
+    }
+
+    @Test
+    void closedQueueStopsPolling() {
+        boolean[] state = new boolean[1];
+        ButtonEventQueue queue = new ButtonEventQueue();
+        ButtonEventQueue.Input input = queue.addInput(() -> state[0]);
+        queue.close();
+
+        state[0] = true;
+        LoopClock.tick();
+        assertFalse(input.get());
+    }
+
+    @Test
+    void rejectsInvalidPeriodAndPhase() {
+        try (ButtonEventQueue queue = new ButtonEventQueue()) {
+            assertThrows(IllegalArgumentException.class, () -> queue.addInput(() -> true, 0, 0));
+            assertThrows(IllegalArgumentException.class, () -> queue.addInput(() -> true, 2, 2));
+        }
+    }
+}
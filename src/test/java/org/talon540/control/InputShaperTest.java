@@ -0,0 +1,73 @@
+package org.talon540.control;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputShaperTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void rescalesOutsideDeadband() {
+        InputShaper shaper = new InputShaper(0.2);
+
+        assertEquals(0, shaper.shape(0.2), kEpsilon);
+        assertEquals(0.5, shaper.shape(0.6), kEpsilon);
+        assertEquals(-1, shaper.shape(-1.5), kEpsilon);
+    }
+
+    @Test
+    void rejectsDeadbandOutsideRange() {
+        assertThrows(IllegalArgumentException.class, () -> new InputShaper(1));
+        assertThrows(IllegalArgumentException.class, () -> new InputShaper(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new InputShaper(Double.NaN));
+    }
+
+    @Test
+    void radialDeadbandKeepsDirection() {
+        InputShaper shaper = new InputShaper(0.2);
+        double[] out = new double[2];
+
+        shaper.calculateRadial(0.1, 0.1, out);
+        assertArrayEquals(new double[] {0, 0}, out, kEpsilon);
+
+        shaper.calculateRadial(0.6, 0.8, out);
+        assertEquals(0.6, out[0], kEpsilon);
+        assertEquals(0.8, out[1], kEpsilon);
+    }
+
+    @Test
+    void slewRateLimitsChangePerSecond() {
+        double[] time = {0};
+        InputShaper shaper = new InputShaper(0, () -> time[0]);
+        shaper.setSlewRate(2);
+
+        time[0] = 0.1;
+        assertEquals(0.2, shaper.calculate(1), kEpsilon);
+        time[0] = 0.2;
+        assertEquals(0.4, shaper.calculate(1), kEpsilon);
+        time[0] = 0.25;
+        assertEquals(0.3, shaper.calculate(0), kEpsilon);
+
+        shaper.reset();
+        assertEquals(0, shaper.calculate(1), kEpsilon);
+    }
+
+    @Test
+    void scalarAndRadialSlewStateAreSeparate() {
+        double[] time = {0};
+        InputShaper shaper = new InputShaper(0, () -> time[0]);
+        shaper.setSlewRate(10);
+        double[] out = new double[2];
+
+        for (int i = 0; i < 5; i++) {
+            time[0] += 0.02;
+            shaper.calculateRadial(1, 0, out);
+        }
+        assertEquals(1, out[0], kEpsilon);
+        assertEquals(0, out[1], kEpsilon);
+
+        // The scalar limiter has only ever seen 0, so it isn't ramping down from the radial output
+        assertEquals(0, shaper.calculate(0), kEpsilon);
+    }
+}
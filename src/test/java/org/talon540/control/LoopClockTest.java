@@ -0,0 +1,46 @@
+package org.talon540.control;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopClockTest {
+    @Test
+    void readsWithinOneLoopShareACycle() {
+        long cycle = LoopClock.tick();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(cycle, LoopClock.getCycle());
+        }
+    }
+
+    @Test
+    void tickStartsNewCycle() {
+        long cycle = LoopClock.getCycle();
+
+        assertEquals(cycle + 1, LoopClock.tick());
+        assertEquals(cycle + 1, LoopClock.getCycle());
+    }
+
+    @Test
+    void overrunningLoopKeepsItsCycleAfterTick() throws InterruptedException {
+        LoopClock.setPeriod(0.002);
+        try {
+            long cycle = LoopClock.tick();
+            assertTrue(LoopClock.isTicked());
+
+            // A loop running well past its period still sees one cycle until the next tick
+            Thread.sleep(5);
+            assertEquals(cycle, LoopClock.getCycle());
+            assertEquals(cycle + 1, LoopClock.tick());
+        } finally {
+            LoopClock.setPeriod(LoopClock.kDefaultPeriodSeconds);
+        }
+    }
+
+    @Test
+    void rejectsNonPositivePeriod() {
+        assertThrows(IllegalArgumentException.class, () -> LoopClock.setPeriod(0));
+        assertThrows(IllegalArgumentException.class, () -> LoopClock.setPeriod(Double.NaN));
+    }
+}
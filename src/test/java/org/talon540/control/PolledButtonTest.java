@@ -0,0 +1,48 @@
+package org.talon540.control;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolledButtonTest {
+    @Test
+    void pollsOncePerPeriod() {
+        int[] polls = new int[1];
+        PolledButton button = PolledButton.of(() -> ++polls[0] > 0, 3);
+
+        // Start at the first loop of a period
+        while (Math.floorMod(LoopClock.tick(), 3) != 0) {}
+
+        for (int i = 0; i < 9; i++) {
+            for (int read = 0; read < 4; read++) {
+                assertTrue(button.get());
+            }
+            LoopClock.tick();
+        }
+
+        assertEquals(3, polls[0]);
+    }
+
+    @Test
+    void phaseOffsetsPollLoop() {
+        long[] polledCycles = new long[2];
+        PolledButton first = PolledButton.of(() -> (polledCycles[0] = LoopClock.getCycle()) >= 0, 4, 0);
+        PolledButton second = PolledButton.of(() -> (polledCycles[1] = LoopClock.getCycle()) >= 0, 4, 2);
+
+        for (int i = 0; i < 8; i++) {
+            LoopClock.tick();
+            first.get();
+            second.get();
+        }
+
+        assertEquals(0, Math.floorMod(polledCycles[0], 4));
+        assertEquals(2, Math.floorMod(polledCycles[1], 4));
+    }
+
+    @Test
+    void rejectsInvalidPeriodAndPhase() {
+        assertThrows(IllegalArgumentException.class, () -> PolledButton.of(() -> true, 0));
+        assertThrows(IllegalArgumentException.class, () -> PolledButton.of(() -> true, 4, 4));
+        assertThrows(IllegalArgumentException.class, () -> PolledButton.of(() -> true, 4, -1));
+    }
+}
@@ -0,0 +1,94 @@
+package org.talon540.control.replay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HIDInputEncodingTest {
+    private static final double kAxisEpsilon = 1 / HIDInputEncoder.kAxisScale;
+
+    private static HIDInputDecoder decode(ByteArrayOutputStream bytes) throws IOException {
+        return new HIDInputDecoder(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    void roundTripKeepsButtonsPOVAndAxes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HIDInputEncoder encoder = new HIDInputEncoder(new DataOutputStream(bytes), new int[]{0, 3});
+
+        // Frame 0: A pressed on the first controller, left stick pushed on the second
+        encoder.setState(0, 0b1, -1);
+        encoder.setAxis(1, 1, -0.75);
+        assertTrue(encoder.hasChanges());
+        encoder.writeFrame(1_000_000);
+
+        // Frame 1, 20 ms later: A released and button 32 pressed, DPAD up-right
+        encoder.setState(0, 1 << 31, 45);
+        encoder.setAxis(1, 1, -0.75);
+        encoder.setAxis(1, 11, 1);
+        encoder.writeFrame(1_020_000);
+
+        // Frame 2, 10 minutes later, so the time delta takes several varint bytes
+        encoder.setState(0, 1 << 31, -1);
+        encoder.writeFrame(601_020_000);
+
+        HIDInputDecoder decoder = decode(bytes);
+        assertEquals(2, decoder.getControllerCount());
+        assertEquals(0, decoder.getPort(0));
+        assertEquals(3, decoder.getPort(1));
+
+        assertEquals(0, decoder.getFrameMicros());
+        decoder.readFrame();
+        assertEquals(0b1, decoder.getButtons(0));
+        assertEquals(0b1, decoder.getToggledButtons(0));
+        assertFalse(decoder.isPOVChanged(0));
+        assertEquals(0, decoder.getChangedAxes(0));
+        assertEquals(1 << 1, decoder.getChangedAxes(1));
+        assertEquals(-0.75, decoder.getAxis(1, 1), kAxisEpsilon);
+
+        assertEquals(20_000, decoder.getFrameMicros());
+        decoder.readFrame();
+        assertEquals(1 << 31, decoder.getButtons(0));
+        assertEquals(0b1 | 1 << 31, decoder.getToggledButtons(0));
+        assertTrue(decoder.isPOVChanged(0));
+        assertEquals(45, decoder.getPOV(0));
+        assertEquals(1 << 11, decoder.getChangedAxes(1));
+        assertEquals(1, decoder.getAxis(1, 11), kAxisEpsilon);
+        assertEquals(-0.75, decoder.getAxis(1, 1), kAxisEpsilon);
+
+        assertEquals(600_020_000, decoder.getFrameMicros());
+        decoder.readFrame();
+        assertEquals(0, decoder.getToggledButtons(0));
+        assertEquals(-1, decoder.getPOV(0));
+        assertEquals(0, decoder.getChangedAxes(1));
+
+        assertTrue(decoder.isFinished());
+    }
+
+    @Test
+    void unchangedStateHasNoChanges() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HIDInputEncoder encoder = new HIDInputEncoder(new DataOutputStream(bytes), new int[]{1});
+        assertFalse(encoder.hasChanges());
+
+        encoder.setState(0, 0b110, 270);
+        encoder.writeFrame(0);
+
+        encoder.setState(0, 0b110, 270);
+        assertFalse(encoder.hasChanges());
+    }
+
+    @Test
+    void decoderRejectsOtherFiles() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{0, 0, 0, 0, 0, 0, 0, 1}, 0, 8);
+
+        assertThrows(IOException.class, () -> decode(bytes));
+    }
+}
@@ -0,0 +1,117 @@
+package org.talon540.hardware;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CANDeviceRegistryTest {
+    private static final double kEpsilon = 1e-9;
+
+    private static double utilization(double framesPerSecond) {
+        return framesPerSecond * CANDeviceRegistry.kBitsPerFrame / CANDeviceRegistry.kBitRate;
+    }
+
+    @Test
+    void rejectsDuplicateIdOnSameBus() {
+        CANDeviceRegistry registry = new CANDeviceRegistry();
+        registry.register(new CANDeviceConfig(1), new CANStatusFrame("Status_1_General", 10));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> registry.register(new CANDeviceConfig(1), new CANStatusFrame("Status_1_General", 10))
+        );
+
+        // The same id on another bus is a different device
+        registry.register(new CANDeviceConfig(1, "canivore"), new CANStatusFrame("Status_1_General", 10));
+        assertEquals(1, registry.getDeviceCount(""));
+        assertEquals(1, registry.getDeviceCount("canivore"));
+    }
+
+    @Test
+    void busesAreUnmodifiable() {
+        CANDeviceRegistry registry = new CANDeviceRegistry();
+        registry.register(new CANDeviceConfig(1), new CANStatusFrame("Status_1_General", 10));
+
+        assertThrows(UnsupportedOperationException.class, () -> registry.getBuses().clear());
+        assertEquals(1, registry.getBuses().size());
+    }
+
+    @Test
+    void talonFXReadsEveryFrameOnce() {
+        CANDeviceRegistry registry = new CANDeviceRegistry();
+        Set<StatusFrameEnhanced> read = new HashSet<>();
+        registry.registerTalonFX(
+                new CANDeviceConfig(1),
+                frame -> {
+                    assertTrue(read.add(frame), frame + " was read twice");
+                    return CANStatusFrame.kMaxPeriodMs;
+                },
+                (frame, periodMs) -> {}
+        );
+
+        assertTrue(read.contains(StatusFrameEnhanced.Status_21_FeedbackIntegrated));
+        assertEquals(
+                utilization(read.size() * 1000.0 / CANStatusFrame.kMaxPeriodMs),
+                registry.getUtilization(""),
+                kEpsilon
+        );
+    }
+
+    @Test
+    void talonFXFallsBackWhenPeriodsCantBeRead() {
+        CANDeviceRegistry registry = new CANDeviceRegistry();
+        int[] frameCount = new int[1];
+        registry.registerTalonFX(
+                new CANDeviceConfig(1),
+                frame -> {
+                    frameCount[0]++;
+                    return 0;
+                },
+                (frame, periodMs) -> {}
+        );
+
+        // Status_1 and Status_2 at 10 and 20 ms, Brushless_Current at 50 ms and every other frame at the fallback
+        double fallbackFrames = (frameCount[0] - 3) * 1000.0 / CANDeviceRegistry.kTalonFXFallbackPeriodMs;
+        assertEquals(utilization(100 + 50 + 20 + fallbackFrames), registry.getUtilization(""), kEpsilon);
+    }
+
+    @Test
+    void talonFXBalanceSlowsOnlyNonCriticalFrames() {
+        Map<StatusFrameEnhanced, Integer> periods = new EnumMap<>(StatusFrameEnhanced.class);
+        // The three critical frames use 300 frames/s at 10 ms, leaving room for the rest once slowed
+        CANDeviceRegistry registry = new CANDeviceRegistry(utilization(400));
+        registry.registerTalonFX(
+                new CANDeviceConfig(1),
+                frame -> 10,
+                periods::put
+        );
+
+        assertTrue(registry.balance());
+        assertFalse(periods.isEmpty());
+        assertFalse(periods.containsKey(StatusFrameEnhanced.Status_1_General));
+        assertFalse(periods.containsKey(StatusFrameEnhanced.Status_2_Feedback0));
+        assertFalse(periods.containsKey(StatusFrameEnhanced.Status_21_FeedbackIntegrated));
+    }
+
+    @Test
+    void balanceOnlySlowsNonCriticalFrames() {
+        CANDeviceRegistry registry = new CANDeviceRegistry(utilization(150));
+        int[] appliedPeriod = new int[1];
+        registry.register(
+                new CANDeviceConfig(1),
+                new CANStatusFrame("critical", 10),
+                new CANStatusFrame("slow", 10, false, period -> appliedPeriod[0] = period)
+        );
+
+        assertFalse(registry.isWithinBudget(""));
+        assertTrue(registry.balance());
+        assertEquals(20, appliedPeriod[0]);
+        assertTrue(registry.isWithinBudget(""));
+    }
+}
@@ -0,0 +1,52 @@
+package org.talon540.math.mapping.position;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundTranslationMapTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void interpolatesBetweenPositions() {
+        BoundTranslationMap map = new BoundTranslationMap(4);
+        assertNull(map.getPositionFromTimestamp(0));
+
+        map.addPositionToMap(0, 0, 1);
+        map.addPositionToMap(2, 4, 2);
+
+        Translation2d middle = map.getPositionFromTimestamp(1.25);
+        assertEquals(0.5, middle.getX(), kEpsilon);
+        assertEquals(1, middle.getY(), kEpsilon);
+
+        // Times outside the map are clamped
+        assertEquals(0, map.getPositionFromTimestamp(0).getX(), kEpsilon);
+        assertEquals(2, map.getPositionFromTimestamp(5).getX(), kEpsilon);
+        assertEquals(4, map.getLatestPosition().getY(), kEpsilon);
+    }
+
+    @Test
+    void overwritesOldestPositionWhenFull() {
+        BoundTranslationMap map = new BoundTranslationMap(3);
+        for (int i = 0; i < 5; i++) {
+            map.addPositionToMap(i, -i, i);
+        }
+
+        assertEquals(3, map.size());
+        assertEquals(2, map.getPositionFromTimestamp(0).getX(), kEpsilon);
+        assertEquals(3.5, map.getPositionFromTimestamp(3.5).getX(), kEpsilon);
+        assertEquals(4, map.getLatestTimestamp(), kEpsilon);
+    }
+
+    @Test
+    void clearsWhenTimeGoesBackwards() {
+        BoundTranslationMap map = new BoundTranslationMap(3);
+        map.addPositionToMap(1, 1, 10);
+        map.addPositionToMap(2, 2, 11);
+        map.addPositionToMap(5, 5, 1);
+
+        assertEquals(1, map.size());
+        assertEquals(5, map.getPositionFromTimestamp(10).getX(), kEpsilon);
+    }
+}
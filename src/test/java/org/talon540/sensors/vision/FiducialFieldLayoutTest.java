@@ -0,0 +1,95 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiducialFieldLayoutTest {
+    private static final double kEpsilon = 1e-9;
+    private static final double kCameraHeight = 0.5;
+    // Height of a tag seen 10 degrees up from 5 m away by a level camera
+    private static final double kTagHeight = kCameraHeight + 5 * Math.tan(Math.toRadians(10));
+
+    private final VisionCameraMountConfig mount = new VisionCameraMountConfig(kCameraHeight, 0);
+
+    @Test
+    void estimatesRobotPoseInFrontOfTag() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+        layout.setTag(1, new Pose2d(5, 0, Rotation2d.fromDegrees(180)), kTagHeight);
+
+        Pose2d pose = layout.estimateRobotPose(1, 0, 10, mount, new Rotation2d());
+        assertNotNull(pose);
+        assertEquals(0, pose.getX(), kEpsilon);
+        assertEquals(0, pose.getY(), kEpsilon);
+    }
+
+    @Test
+    void usesRobotHeading() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+        layout.setTag(2, new Pose2d(3, 7, Rotation2d.fromDegrees(-90)), kTagHeight);
+
+        // Facing +y with the tag straight ahead, so the robot is 5 m below the tag
+        Pose2d pose = layout.estimateRobotPose(2, 0, 10, mount, Rotation2d.fromDegrees(90));
+        assertNotNull(pose);
+        assertEquals(3, pose.getX(), kEpsilon);
+        assertEquals(2, pose.getY(), kEpsilon);
+    }
+
+    @Test
+    void rejectsEstimateBehindTag() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+        layout.setTag(1, new Pose2d(5, 0, new Rotation2d()), kTagHeight);
+
+        assertNull(layout.estimateRobotPose(1, 0, 10, mount, new Rotation2d()));
+    }
+
+    @Test
+    void rejectsUnknownTag() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+
+        assertNull(layout.estimateRobotPose(3, 0, 10, mount, new Rotation2d()));
+        assertNull(layout.estimateRobotPose(9, 0, 10, mount, new Rotation2d()));
+        assertNull(layout.getTagInverseTransform(3));
+    }
+
+    @Test
+    void inverseTransformMovesTagToOrigin() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+        Pose2d tagPose = new Pose2d(4, -2, Rotation2d.fromDegrees(135));
+        layout.setTag(4, tagPose, kTagHeight);
+
+        Pose2d origin = tagPose.transformBy(layout.getTagInverseTransform(4));
+        assertEquals(0, origin.getX(), kEpsilon);
+        assertEquals(0, origin.getY(), kEpsilon);
+        assertEquals(0, origin.getRotation().getRadians(), kEpsilon);
+    }
+
+    @Test
+    void batchMatchesSingleEstimates() {
+        FiducialFieldLayout layout = new FiducialFieldLayout(8);
+        layout.setTag(1, new Pose2d(5, 0, Rotation2d.fromDegrees(180)), kTagHeight);
+        layout.setTag(2, new Pose2d(5, 1, Rotation2d.fromDegrees(180)), kTagHeight);
+
+        VisionTargetBuffer buffer = new VisionTargetBuffer(4);
+        buffer.beginFrame(20);
+        buffer.addTarget(0, 10, 0, 1, 1, 0);
+        buffer.addTarget(-11, 10, 0, 1, 2, 0);
+        buffer.addTarget(3, 10, 0, 1, 7, 0);
+
+        double[] x = new double[4], y = new double[4];
+        int[] ids = new int[4];
+        Rotation2d heading = Rotation2d.fromDegrees(5);
+
+        assertEquals(2, layout.estimateRobotPositions(buffer, mount, heading, x, y, ids));
+        for (int i = 0; i < 2; i++) {
+            VisionTargetBuffer.Target target = buffer.get(i);
+            Pose2d expected = layout.estimateRobotPose(target.getFiducialId(), target.getYaw(), target.getPitch(), mount, heading);
+
+            assertEquals(target.getFiducialId(), ids[i]);
+            assertEquals(expected.getX(), x[i], kEpsilon);
+            assertEquals(expected.getY(), y[i], kEpsilon);
+        }
+    }
+}
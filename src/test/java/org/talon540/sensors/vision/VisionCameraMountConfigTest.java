@@ -0,0 +1,77 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionCameraMountConfigTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void cameraDistanceUsesMountAngle() {
+        VisionCameraMountConfig mount = new VisionCameraMountConfig(0.5, 30);
+
+        // A target 1 m above the camera seen 15 degrees above the camera's center is 45 degrees above the horizon
+        assertEquals(1, mount.getCameraDistanceToTargetBase(15, 1.5), kEpsilon);
+    }
+
+    @Test
+    void centeredCameraPlacesTargetAlongYaw() {
+        VisionCameraMountConfig mount = new VisionCameraMountConfig(0.5, 30);
+
+        Translation2d ahead = mount.getRobotRelativeTargetPosition(0, 15, 1.5);
+        assertEquals(1, ahead.getX(), kEpsilon);
+        assertEquals(0, ahead.getY(), kEpsilon);
+
+        // Positive yaw is to the right, which is negative y
+        Translation2d right = mount.getRobotRelativeTargetPosition(90, 15, 1.5);
+        assertEquals(0, right.getX(), kEpsilon);
+        assertEquals(-1, right.getY(), kEpsilon);
+    }
+
+    @Test
+    void offsetCameraAddsMountTranslation() {
+        // Camera 0.25 m right of and 0.5 m ahead of the center of the robot
+        VisionCameraMountConfig mount = new VisionCameraMountConfig(0.5, 30, 0.25, 0.5);
+
+        assertEquals(0.5, mount.getRobotToCamera().getX(), kEpsilon);
+        assertEquals(-0.25, mount.getRobotToCamera().getY(), kEpsilon);
+
+        Translation2d target = mount.getRobotRelativeTargetPosition(0, 15, 1.5);
+        assertEquals(1.5, target.getX(), kEpsilon);
+        assertEquals(-0.25, target.getY(), kEpsilon);
+        assertEquals(Math.hypot(1.5, 0.25), mount.getRobotDistanceToTargetBase(0, 15, 1.5), kEpsilon);
+    }
+
+    @Test
+    void yawedCameraRotatesTargets() {
+        // Camera 0.25 m left of the center of the robot facing left
+        VisionCameraMountConfig left = new VisionCameraMountConfig(0.5, 30, -0.25, 0, 90);
+        assertEquals(90, left.getRobotToCamera().getRotation().getDegrees(), kEpsilon);
+
+        Translation2d ahead = left.getRobotRelativeTargetPosition(0, 15, 1.5);
+        assertEquals(0, ahead.getX(), kEpsilon);
+        assertEquals(1.25, ahead.getY(), kEpsilon);
+
+        // Camera 0.5 m behind the center of the robot facing backwards, with a target 90 degrees to its right
+        VisionCameraMountConfig back = new VisionCameraMountConfig(0.5, 30, 0, -0.5, 180);
+        Translation2d right = back.getRobotRelativeTargetPosition(90, 15, 1.5);
+        assertEquals(-0.5, right.getX(), kEpsilon);
+        assertEquals(1, right.getY(), kEpsilon);
+    }
+
+    @Test
+    void singleAndArrayPathsAgree() {
+        VisionCameraMountConfig mount = new VisionCameraMountConfig(0.6, 25, -0.1, 0.3, 35);
+        double[] out = new double[2];
+
+        for (double yaw = -30; yaw <= 30; yaw += 7.5) {
+            Translation2d expected = mount.getRobotRelativeTargetPosition(yaw, 4, 2.6);
+            mount.getRobotRelativeTargetPosition(yaw, 4, 2.6, out);
+
+            assertEquals(expected.getX(), out[0], kEpsilon);
+            assertEquals(expected.getY(), out[1], kEpsilon);
+        }
+    }
+}
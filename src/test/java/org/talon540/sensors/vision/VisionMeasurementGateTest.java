@@ -0,0 +1,97 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionMeasurementGateTest {
+    private static void warmUp(VisionMeasurementGate gate, double distance, int count) {
+        for (int i = 0; i < count; i++) {
+            // Small alternating noise so the statistics have a non-zero spread
+            assertTrue(gate.gateDistance(distance + (i % 2 == 0 ? 0.01 : -0.01)) > 0);
+        }
+    }
+
+    @Test
+    void acceptsZeroResidualAfterMeanDrifts() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(2);
+        warmUp(gate, 1, 50);
+
+        // The mean distance is many standard deviations above 0, but a measurement matching odometry is still good
+        assertEquals(1, gate.gateDistance(0));
+        assertEquals(1, gate.gate(new Pose2d(3, 4, new Rotation2d()), new Pose2d(3, 4, new Rotation2d())));
+    }
+
+    @Test
+    void rejectsDistanceFarAboveMean() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(2);
+        warmUp(gate, 0.1, 50);
+
+        assertEquals(0, gate.gateDistance(1));
+        assertEquals(1, gate.getRejectionRate() * gate.getMeasurementCount(), 1e-9);
+    }
+
+    @Test
+    void recoversFromStepError() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(2, 2, 3, 0.05, 10, 5);
+        warmUp(gate, 0.05, 50);
+
+        // Odometry jumps 0.8 m, so every later vision measurement disagrees with it by the same amount
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, gate.gateDistance(0.8));
+        }
+        assertEquals(1, gate.gateDistance(0.8));
+        assertEquals(1, gate.getRecoveryCount());
+
+        // The statistics start over from the new residual, so it keeps being accepted
+        for (int i = 0; i < 20; i++) {
+            assertTrue(gate.gateDistance(0.8 + (i % 2 == 0 ? 0.01 : -0.01)) > 0);
+        }
+    }
+
+    @Test
+    void acceptedMeasurementBreaksRejectionStreak() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(2, 2, 3, 0.05, 10, 3);
+        warmUp(gate, 0.05, 50);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, gate.gateDistance(1.5));
+            assertEquals(0, gate.gateDistance(1.5));
+            assertTrue(gate.gateDistance(0.05) > 0);
+        }
+        assertEquals(0, gate.getRecoveryCount());
+    }
+
+    @Test
+    void neverRecoversPastMaxResidual() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(1, 2, 3, 0.05, 10, 3);
+        warmUp(gate, 0.05, 50);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, gate.gateDistance(1.5));
+        }
+        assertEquals(0, gate.getRecoveryCount());
+    }
+
+    @Test
+    void signedResidualIsGatedOnBothSides() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(5, 2, 3, 0.05, 10, 0);
+        for (int i = 0; i < 50; i++) {
+            gate.gateResidual(i % 2 == 0 ? 0.1 : -0.1);
+        }
+
+        assertEquals(0, gate.gateResidual(2));
+        assertEquals(0, gate.gateResidual(-2));
+        assertEquals(1, gate.gateResidual(0));
+    }
+
+    @Test
+    void rejectsNaN() {
+        VisionMeasurementGate gate = new VisionMeasurementGate(2);
+
+        assertEquals(0, gate.gateDistance(Double.NaN));
+        assertEquals(0, gate.gateResidual(Double.NaN));
+    }
+}
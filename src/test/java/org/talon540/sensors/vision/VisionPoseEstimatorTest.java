@@ -0,0 +1,190 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import org.junit.jupiter.api.Test;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionPoseEstimatorTest {
+    private static final double kEpsilon = 1e-9;
+    private static final double kPeriod = 0.02;
+
+    private static void assertPose(double x, double y, double degrees, Pose2d actual) {
+        assertNotNull(actual);
+        assertEquals(x, actual.getX(), kEpsilon, "x");
+        assertEquals(y, actual.getY(), kEpsilon, "y");
+        assertEquals(0, Rotation2d.fromDegrees(degrees).minus(actual.getRotation()).getRadians(), kEpsilon, "rotation");
+    }
+
+    /**
+     * Odometry driving along x at 1 m/s
+     */
+    private static Pose2d straight(int sample) {
+        return new Pose2d(sample * kPeriod, 0, new Rotation2d());
+    }
+
+    /**
+     * Odometry driving at 1 m/s while turning at 90 degrees per second
+     */
+    private static Pose2d turning(int sample) {
+        Pose2d pose = new Pose2d();
+        for (int i = 0; i < sample; i++) {
+            pose = pose.exp(new Twist2d(kPeriod, 0, Math.toRadians(90) * kPeriod));
+        }
+        return pose;
+    }
+
+    @Test
+    void followsOdometryWithoutVision() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(10, 1, 0);
+        for (int i = 0; i < 5; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        assertPose(0.08, 0, 0, estimator.getEstimatedPosition());
+        assertPose(0.03, 0, 0, estimator.getEstimatedPosition(0.03));
+    }
+
+    @Test
+    void replaysOdometryAfterPastMeasurement() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(20, 1, 0);
+        for (int i = 0; i < 10; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        // Vision says the robot was 0.5 m to the left at sample 4
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod, 0.5, new Rotation2d()), 4 * kPeriod));
+
+        assertPose(3 * kPeriod, 0, 0, estimator.getEstimatedPosition(3 * kPeriod));
+        assertPose(4 * kPeriod, 0.5, 0, estimator.getEstimatedPosition(4 * kPeriod));
+        assertPose(9 * kPeriod, 0.5, 0, estimator.getEstimatedPosition());
+    }
+
+    @Test
+    void movesMeasurementBetweenSamplesToFloorSample() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(20, 1, 0);
+        for (int i = 0; i < 10; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        // Halfway between samples 4 and 5, the robot had driven 0.01 m past sample 4
+        double timestamp = 4.5 * kPeriod;
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4.5 * kPeriod + 0.2, 0, new Rotation2d()), timestamp));
+
+        assertPose(4 * kPeriod + 0.2, 0, 0, estimator.getEstimatedPosition(4 * kPeriod));
+        assertPose(9 * kPeriod + 0.2, 0, 0, estimator.getEstimatedPosition());
+    }
+
+    @Test
+    void replayKeepsFieldOffsetWhileTurning() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(40, 1, 0);
+        for (int i = 0; i < 30; i++) {
+            estimator.addOdometry(turning(i), i * kPeriod);
+        }
+
+        Pose2d atMeasurement = turning(10);
+        assertTrue(estimator.addVisionMeasurement(
+                new Pose2d(atMeasurement.getX() + 0.3, atMeasurement.getY() - 0.2, atMeasurement.getRotation()),
+                10 * kPeriod
+        ));
+
+        // Rotation is unchanged, so every replayed sample is shifted by the same field relative offset
+        for (int i = 10; i < 30; i++) {
+            Pose2d odometry = turning(i);
+            assertPose(
+                    odometry.getX() + 0.3,
+                    odometry.getY() - 0.2,
+                    odometry.getRotation().getDegrees(),
+                    estimator.getEstimatedPosition(i * kPeriod)
+            );
+        }
+    }
+
+    @Test
+    void partialGainCorrectsFraction() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(20, 0.25, 0.5);
+        for (int i = 0; i < 5; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod + 1, 0, Rotation2d.fromDegrees(20)), 4 * kPeriod));
+        assertPose(4 * kPeriod + 0.25, 0, 10, estimator.getEstimatedPosition());
+
+        // A weight scales the gains
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod + 0.25, 1, Rotation2d.fromDegrees(10)), 4 * kPeriod, 0.5));
+        assertPose(4 * kPeriod + 0.25, 0.125, 10, estimator.getEstimatedPosition());
+    }
+
+    @Test
+    void ringBufferDropsOldHistory() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(5, 1, 0);
+        for (int i = 0; i < 12; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        assertEquals(7 * kPeriod, estimator.getOldestTimestamp(), kEpsilon);
+        assertFalse(estimator.addVisionMeasurement(new Pose2d(0, 1, new Rotation2d()), 6 * kPeriod));
+
+        // The oldest kept sample wraps around the end of the buffer
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(7 * kPeriod, 1, new Rotation2d()), 7 * kPeriod));
+        for (int i = 7; i < 12; i++) {
+            assertPose(i * kPeriod, 1, 0, estimator.getEstimatedPosition(i * kPeriod));
+        }
+    }
+
+    @Test
+    void ignoresOutOfOrderOdometry() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(5, 1, 0);
+        estimator.addOdometry(straight(2), 2 * kPeriod);
+        estimator.addOdometry(straight(1), kPeriod);
+
+        assertPose(2 * kPeriod, 0, 0, estimator.getEstimatedPosition());
+        assertEquals(2 * kPeriod, estimator.getOldestTimestamp(), kEpsilon);
+    }
+
+    @Test
+    void positionMapOnlyGetsLatestCorrection() {
+        UnboundRobotPositionMap positionMap = new UnboundRobotPositionMap();
+        VisionPoseEstimator estimator = new VisionPoseEstimator(20, 1, 0);
+        estimator.setPositionMap(positionMap);
+
+        for (int i = 0; i < 10; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod, 0.5, new Rotation2d()), 4 * kPeriod));
+
+        assertPose(9 * kPeriod, 0.5, 0, positionMap.getLatestPosition());
+        assertPose(6.5 * kPeriod, 0, 0, positionMap.getPositionFromTimestamp(6.5 * kPeriod));
+    }
+
+    @Test
+    void gateRejectsOutlier() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(20, 1, 0);
+        estimator.setMeasurementGate(new VisionMeasurementGate(1));
+        for (int i = 0; i < 10; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        assertFalse(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod, 3, new Rotation2d()), 4 * kPeriod));
+        assertTrue(estimator.addVisionMeasurement(new Pose2d(4 * kPeriod, 0, new Rotation2d()), 4 * kPeriod));
+        assertPose(9 * kPeriod, 0, 0, estimator.getEstimatedPosition());
+    }
+
+    @Test
+    void resetStartsFromKnownPose() {
+        VisionPoseEstimator estimator = new VisionPoseEstimator(5, 1, 0);
+        for (int i = 0; i < 8; i++) {
+            estimator.addOdometry(straight(i), i * kPeriod);
+        }
+
+        estimator.resetPosition(straight(8), new Pose2d(2, 3, Rotation2d.fromDegrees(90)), 8 * kPeriod);
+        estimator.addOdometry(straight(9), 9 * kPeriod);
+
+        // Driving forward 0.02 m while facing +y
+        assertPose(2, 3 + kPeriod, 90, estimator.getEstimatedPosition());
+        assertEquals(8 * kPeriod, estimator.getOldestTimestamp(), kEpsilon);
+    }
+}
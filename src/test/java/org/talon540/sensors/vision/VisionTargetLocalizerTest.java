@@ -0,0 +1,87 @@
+package org.talon540.sensors.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.junit.jupiter.api.Test;
+import org.talon540.math.mapping.position.UnboundRobotPositionMap;
+import org.talon540.sensors.vision.VisionFlags.CAMMode;
+import org.talon540.sensors.vision.VisionFlags.LEDStates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionTargetLocalizerTest {
+    private static final double kEpsilon = 1e-9;
+
+    private static VisionTargetLocalizer createLocalizer(VisionCameraMountConfig mountConfig) {
+        VisionSystem visionSystem = new VisionSystem(mountConfig) {
+            @Override
+            public int getPipelineIndex() {
+                return 0;
+            }
+
+            @Override
+            public void setPipelineIndex(int index) {
+            }
+
+            @Override
+            public LEDStates getLEDMode() {
+                return LEDStates.OFF;
+            }
+
+            @Override
+            public void setLEDMode(LEDStates state) {
+            }
+
+            @Override
+            public CAMMode getCamMode() {
+                return CAMMode.PROCESSING;
+            }
+
+            @Override
+            public void setCamMode(CAMMode targetMode) {
+            }
+
+            @Override
+            public boolean targetViewed() {
+                return false;
+            }
+
+            @Override
+            public VisionState getVisionState() {
+                return null;
+            }
+        };
+
+        // A target 1 m above the camera at a total pitch of 45 degrees is 1 m from the camera
+        return new VisionTargetLocalizer(visionSystem, new UnboundRobotPositionMap(), 1.5);
+    }
+
+    @Test
+    void placesTargetFromRobotPoseAndMount() {
+        // Camera 0.5 m ahead of the center of the robot
+        VisionTargetLocalizer localizer = createLocalizer(new VisionCameraMountConfig(0.5, 30, 0, 0.5));
+        double[] out = new double[2];
+
+        // Robot at (2, 3) facing +y, so the target 1.5 m ahead of its center is at (2, 4.5)
+        localizer.getFieldRelativeTargetPosition(new Pose2d(2, 3, Rotation2d.fromDegrees(90)), 0, 15, out);
+        assertEquals(2, out[0], kEpsilon);
+        assertEquals(4.5, out[1], kEpsilon);
+
+        // A target 90 degrees to the right of the camera is 1 m along -x from the camera, at (2 + 1, 3.5)
+        localizer.getFieldRelativeTargetPosition(new Pose2d(2, 3, Rotation2d.fromDegrees(90)), 90, 15, out);
+        assertEquals(3, out[0], kEpsilon);
+        assertEquals(3.5, out[1], kEpsilon);
+    }
+
+    @Test
+    void appliesMountYaw() {
+        // Camera 0.25 m left of the center of the robot facing left
+        VisionTargetLocalizer localizer = createLocalizer(new VisionCameraMountConfig(0.5, 30, -0.25, 0, 90));
+        double[] out = new double[2];
+
+        // Robot at (1, 1) facing -x, so the target 1.25 m to its left is at (1, -0.25)
+        localizer.getFieldRelativeTargetPosition(new Pose2d(1, 1, Rotation2d.fromDegrees(180)), 0, 15, out);
+        assertEquals(1, out[0], kEpsilon);
+        assertEquals(-0.25, out[1], kEpsilon);
+    }
+}
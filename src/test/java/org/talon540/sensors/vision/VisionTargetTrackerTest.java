@@ -0,0 +1,90 @@
+package org.talon540.sensors.vision;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionTargetTrackerTest {
+    private static VisionTargetBuffer frame(double timestamp, double... yaws) {
+        VisionTargetBuffer buffer = new VisionTargetBuffer(8);
+        buffer.beginFrame(0.02, timestamp);
+        for (double yaw : yaws) {
+            buffer.addTarget(yaw, 0, 0, 1, -1, -1);
+        }
+        return buffer;
+    }
+
+    private static int findTrackNear(VisionTargetTracker tracker, double yaw) {
+        for (int i = 0; i < tracker.getMaxTracks(); i++) {
+            VisionTargetTracker.Track track = tracker.getTrackSlot(i);
+            if (track.isActive() && Math.abs(track.getYaw() - yaw) < 0.5)
+                return track.getId();
+        }
+        return -1;
+    }
+
+    @Test
+    void keepsTrackIdentityAcrossFrames() {
+        VisionTargetTracker tracker = new VisionTargetTracker(4, 8, 5, 1, 0, 1);
+
+        tracker.update(frame(0, -10, 10));
+        int left = findTrackNear(tracker, -10);
+        int right = findTrackNear(tracker, 10);
+        assertNotEquals(-1, left);
+        assertNotEquals(-1, right);
+
+        tracker.update(frame(0.02, 11, -9));
+        assertEquals(2, tracker.getTrackCount());
+        assertEquals(left, findTrackNear(tracker, -9));
+        assertEquals(right, findTrackNear(tracker, 11));
+    }
+
+    @Test
+    void matchesClosestPairFirst() {
+        VisionTargetTracker tracker = new VisionTargetTracker(4, 8, 5, 1, 0, 1);
+
+        tracker.update(frame(0, 0, 4));
+        int first = findTrackNear(tracker, 0);
+        int second = findTrackNear(tracker, 4);
+
+        // Target at 3.5 is within the gate of both tracks but closest to the second, so the target at 1 takes the first
+        tracker.update(frame(0.02, 1, 3.5));
+        assertEquals(first, findTrackNear(tracker, 1));
+        assertEquals(second, findTrackNear(tracker, 3.5));
+    }
+
+    @Test
+    void startsNewTrackOutsideGate() {
+        VisionTargetTracker tracker = new VisionTargetTracker(4, 8, 5, 1, 0, 1);
+
+        tracker.update(frame(0, 0));
+        tracker.update(frame(0.02, 20));
+        assertEquals(2, tracker.getTrackCount());
+    }
+
+    @Test
+    void ignoresRereadFrameWithNewTimestamp() {
+        VisionTargetTracker tracker = new VisionTargetTracker(4, 8, 5, 1, 0, 1);
+
+        tracker.update(frame(0, 0));
+        VisionTargetTracker.Track track = tracker.getPrimaryTrack();
+        assertEquals(1, track.getHits());
+
+        // The same frame read again later is stamped later by systems that derive the timestamp from the read time
+        tracker.update(frame(0.05, 0));
+        assertEquals(1, track.getHits());
+
+        tracker.update(frame(0.07, 0.5));
+        assertEquals(2, track.getHits());
+    }
+
+    @Test
+    void dropsStaleTracks() {
+        VisionTargetTracker tracker = new VisionTargetTracker(4, 8, 5, 1, 0, 0.5);
+
+        tracker.update(frame(0, 0));
+        tracker.update(frame(1, 20));
+        assertEquals(1, tracker.getTrackCount());
+        assertNotEquals(-1, findTrackNear(tracker, 20));
+    }
+}
@@ -0,0 +1,192 @@
+package org.talon540.sensors.vision.replay;
+
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.talon540.sensors.vision.TalonTracking.TalonTrackingFrame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionStreamRecordingTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripKeepsEveryRecord() throws IOException {
+        VisionStreamRecording recording = new VisionStreamRecording();
+        recording.addLimelightFrame(
+                0.0,
+                "limelight",
+                true,
+                -4.5,
+                12.25,
+                -90,
+                1.5,
+                22
+        );
+        recording.addTalonTrackingFrame(
+                0.02,
+                new TalonTrackingFrame(
+                        7,
+                        1.25,
+                        3,
+                        -2,
+                        0.5
+                )
+        );
+        recording.addPhotonVisionFrame(
+                0.04,
+                "camera",
+                new byte[]{1, 2, 3, -4}
+        );
+        recording.addRecord(
+                0.06,
+                "/limelight/tcornxy",
+                NetworkTableValue.makeDoubleArray(new double[]{1, 2, 3, 4})
+        );
+        recording.addRecord(
+                0.06,
+                "/limelight/json",
+                NetworkTableValue.makeString("{}")
+        );
+        recording.addRecord(
+                0.08,
+                "/TalonTracking/robot_ready",
+                NetworkTableValue.makeBoolean(true)
+        );
+        recording.addRecord(
+                0.08,
+                "/TalonTracking/flags",
+                NetworkTableValue.makeBooleanArray(new boolean[]{true, false})
+        );
+        recording.addRecord(
+                0.1,
+                "/TalonTracking/names",
+                NetworkTableValue.makeStringArray(new String[]{"cargo", "cone"})
+        );
+
+        Path file = tempDir.resolve("stream.tvis");
+        recording.save(file);
+        VisionStreamRecording loaded = VisionStreamRecording.load(file);
+
+        assertEquals(recording.size(), loaded.size());
+        assertEquals(recording.getDurationSeconds(), loaded.getDurationSeconds());
+
+        for (int i = 0; i < recording.size(); i++) {
+            VisionStreamRecording.Record expected = recording.get(i);
+            VisionStreamRecording.Record actual = loaded.get(i);
+
+            assertEquals(expected.getTimeSeconds(), actual.getTimeSeconds());
+            assertEquals(expected.getKey(), actual.getKey());
+            assertValueEquals(expected.getValue(), actual.getValue());
+        }
+    }
+
+    @Test
+    void roundTripKeepsPackedTalonTrackingFrame() throws IOException {
+        TalonTrackingFrame frame = new TalonTrackingFrame(42, 3.5, -1.25, 4, 0.75);
+
+        VisionStreamRecording recording = new VisionStreamRecording();
+        recording.addTalonTrackingFrame(0, frame);
+
+        Path file = tempDir.resolve("frame.tvis");
+        recording.save(file);
+
+        TalonTrackingFrame loaded = TalonTrackingFrame.fromPacked(
+                VisionStreamRecording.load(file).get(0).getValue().getDoubleArray()
+        );
+
+        assertNotNull(loaded);
+        assertEquals(frame.getSequence(), loaded.getSequence());
+        assertArrayEquals(frame.toPacked(), loaded.toPacked());
+        assertFalse(loaded.isNewerThan(frame));
+    }
+
+    @Test
+    void recordsMustBeInTimeOrder() {
+        VisionStreamRecording recording = new VisionStreamRecording();
+        recording.addRecord(1, "/limelight/tx", NetworkTableValue.makeDouble(0));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> recording.addRecord(0.5, "/limelight/tx", NetworkTableValue.makeDouble(0))
+        );
+    }
+
+    @Test
+    void loadRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.write(file, new byte[]{0, 0, 0, 0, 0, 0, 0, 1});
+
+        assertThrows(IOException.class, () -> VisionStreamRecording.load(file));
+    }
+
+    @Test
+    void loadKeepsUpWithRecordingRate() throws IOException {
+        // Ten minutes of a 90 Hz Limelight stream, 6 entries per frame
+        VisionStreamRecording recording = new VisionStreamRecording();
+        int frames = 90 * 60 * 10;
+        for (int i = 0; i < frames; i++) {
+            recording.addLimelightFrame(
+                    i / 90.0,
+                    "limelight",
+                    true,
+                    i % 27,
+                    -(i % 13),
+                    0,
+                    1,
+                    20
+            );
+        }
+
+        Path file = tempDir.resolve("long.tvis");
+        recording.save(file);
+
+        long start = System.nanoTime();
+        VisionStreamRecording loaded = VisionStreamRecording.load(file);
+        double loadSeconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(recording.size(), loaded.size());
+        // Loading has to be far faster than real time for replay-based tests to be practical
+        assertTrue(
+                loadSeconds < recording.getDurationSeconds() / 20,
+                "Loading " + recording.size() + " records took " + loadSeconds + " s"
+        );
+    }
+
+    private static void assertValueEquals(NetworkTableValue expected, NetworkTableValue actual) {
+        assertEquals(expected.getType(), actual.getType());
+
+        NetworkTableType type = expected.getType();
+        switch (type) {
+            case kBoolean:
+                assertEquals(expected.getBoolean(), actual.getBoolean());
+                break;
+            case kDouble:
+                assertEquals(expected.getDouble(), actual.getDouble());
+                break;
+            case kString:
+                assertEquals(expected.getString(), actual.getString());
+                break;
+            case kRaw:
+                assertArrayEquals(expected.getRaw(), actual.getRaw());
+                break;
+            case kBooleanArray:
+                assertArrayEquals(expected.getBooleanArray(), actual.getBooleanArray());
+                break;
+            case kDoubleArray:
+                assertArrayEquals(expected.getDoubleArray(), actual.getDoubleArray());
+                break;
+            case kStringArray:
+                assertArrayEquals(expected.getStringArray(), actual.getStringArray());
+                break;
+            default:
+                fail("Unexpected type " + type);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.talon540.sensors.vision.replay;
+
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionStreamReplayerTest {
+    @TempDir
+    Path tempDir;
+
+    private static VisionStreamRecording createRecording(int frames, double periodSeconds) {
+        VisionStreamRecording recording = new VisionStreamRecording();
+        for (int i = 0; i < frames; i++) {
+            recording.addLimelightFrame(
+                    i * periodSeconds,
+                    "limelight",
+                    true,
+                    i,
+                    -i,
+                    0,
+                    1,
+                    20
+            );
+        }
+        return recording;
+    }
+
+    @Test
+    void replayWritesSavedRecordsInOrder() throws IOException {
+        VisionStreamRecording recording = createRecording(10, 0.02);
+        Path file = tempDir.resolve("stream.tvis");
+        recording.save(file);
+
+        List<String> keys = new ArrayList<>();
+        List<NetworkTableValue> values = new ArrayList<>();
+        VisionStreamReplayer replayer = new VisionStreamReplayer(
+                (key, value) -> {
+                    keys.add(key);
+                    values.add(value);
+                },
+                VisionStreamRecording.load(file)
+        );
+
+        assertEquals(recording.size(), replayer.replayUntil(Double.POSITIVE_INFINITY));
+        assertTrue(replayer.isFinished());
+
+        for (int i = 0; i < recording.size(); i++) {
+            assertEquals(recording.get(i).getKey(), keys.get(i));
+            assertEquals(recording.get(i).getValue().getDouble(), values.get(i).getDouble());
+        }
+    }
+
+    @Test
+    void replayUntilStopsAtTime() {
+        VisionStreamRecording recording = createRecording(10, 0.02);
+        List<String> keys = new ArrayList<>();
+        VisionStreamReplayer replayer = new VisionStreamReplayer(
+                (key, value) -> keys.add(key),
+                recording
+        );
+
+        // Frames at 0, 0.02 and 0.04, 6 entries each
+        assertEquals(18, replayer.replayUntil(0.05));
+        assertEquals(0, replayer.replayUntil(0.05));
+        assertFalse(replayer.isFinished());
+
+        replayer.reset();
+        assertEquals(6, replayer.replayUntil(0));
+    }
+
+    @Test
+    void realTimeReplayKeepsRecordedTiming() throws InterruptedException {
+        double periodSeconds = 0.01;
+        VisionStreamRecording recording = createRecording(30, periodSeconds);
+
+        List<Double> frameTimes = new ArrayList<>();
+        long[] start = new long[1];
+        VisionStreamReplayer replayer = new VisionStreamReplayer(
+                (key, value) -> {
+                    if (key.endsWith("/tx"))
+                        frameTimes.add((System.nanoTime() - start[0]) / 1e9);
+                },
+                recording
+        );
+
+        start[0] = System.nanoTime();
+        assertEquals(recording.size(), replayer.replay(1));
+
+        assertEquals(30, frameTimes.size());
+        for (int i = 0; i < frameTimes.size(); i++) {
+            double lateness = frameTimes.get(i) - i * periodSeconds;
+            assertTrue(lateness > -0.001, "Frame " + i + " was written " + -lateness + " s early");
+        }
+
+        // The replay shouldn't drift by more than a few frames over the recording
+        double totalLateness = frameTimes.get(frameTimes.size() - 1) - recording.getDurationSeconds();
+        assertTrue(totalLateness < 0.05, "Replay finished " + totalLateness + " s late");
+    }
+
+    @Test
+    void fastReplayDoesNotWait() throws InterruptedException {
+        VisionStreamRecording recording = createRecording(1000, 1);
+        VisionStreamReplayer replayer = new VisionStreamReplayer(
+                (key, value) -> {
+                },
+                recording
+        );
+
+        long start = System.nanoTime();
+        assertEquals(recording.size(), replayer.replay(0));
+        assertTrue((System.nanoTime() - start) / 1e9 < 1);
+    }
+}